@@ -3,6 +3,8 @@ package com.mojang.launcher;
 import com.mojang.authlib.Agent;
 import com.mojang.launcher.updater.ExceptionalThreadPoolExecutor;
 import com.mojang.launcher.updater.VersionManager;
+import com.mojang.launcher.updater.download.ConcurrencyController;
+import com.mojang.launcher.updater.download.HttpTransport;
 import com.mojang.launcher.versions.ReleaseTypeFactory;
 
 import java.io.File;
@@ -12,6 +14,8 @@ import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 
 public class Launcher {
+    private static final int INITIAL_CONNECTIONS_PER_HOST = 8;
+    public static final int MAX_CONNECTIONS_PER_HOST = 32;
 
     static {
         Thread.currentThread().setContextClassLoader(Launcher.class.getClassLoader());
@@ -23,12 +27,15 @@ public class Launcher {
     private final Proxy proxy;
     private final PasswordAuthentication proxyAuth;
     private final ThreadPoolExecutor downloaderExecutorService;
+    private final ConcurrencyController concurrencyController;
     private final Agent agent;
     private final ReleaseTypeFactory releaseTypeFactory;
     private final int launcherFormatVersion;
 
     public Launcher(final UserInterface ui, final File workingDirectory, final Proxy proxy, final PasswordAuthentication proxyAuth, final VersionManager versionManager, final Agent agent, final ReleaseTypeFactory releaseTypeFactory, final int launcherFormatVersion) {
-        this.downloaderExecutorService = new ExceptionalThreadPoolExecutor(16, 16, 30L, TimeUnit.SECONDS);
+        this.concurrencyController = new ConcurrencyController(INITIAL_CONNECTIONS_PER_HOST, MAX_CONNECTIONS_PER_HOST);
+        this.downloaderExecutorService = new ExceptionalThreadPoolExecutor(MAX_CONNECTIONS_PER_HOST, MAX_CONNECTIONS_PER_HOST, 30L, TimeUnit.SECONDS);
+        HttpTransport.configure(this.concurrencyController);
         this.ui = ui;
         this.proxy = proxy;
         this.proxyAuth = proxyAuth;
@@ -68,6 +75,10 @@ public class Launcher {
         return this.downloaderExecutorService;
     }
 
+    public ConcurrencyController getConcurrencyController() {
+        return this.concurrencyController;
+    }
+
     public void shutdownLauncher() {
         this.getUserInterface().shutdownLauncher();
     }
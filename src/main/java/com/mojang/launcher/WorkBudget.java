@@ -0,0 +1,8 @@
+package com.mojang.launcher;
+
+public interface WorkBudget {
+    WorkBudget UNLIMITED = count -> {
+    };
+
+    void spend(final int count);
+}
@@ -1,36 +1,49 @@
 package com.mojang.launcher.game.runner;
 
 import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.mojang.launcher.Launcher;
 import com.mojang.launcher.game.GameInstanceStatus;
 import com.mojang.launcher.updater.DownloadProgress;
 import com.mojang.launcher.updater.VersionSyncInfo;
+import com.mojang.launcher.updater.download.BandwidthLimiter;
 import com.mojang.launcher.updater.download.DownloadJob;
 import com.mojang.launcher.updater.download.DownloadListener;
+import com.mojang.launcher.updater.download.DownloadPriority;
 import com.mojang.launcher.updater.download.Downloadable;
 import com.mojang.launcher.versions.CompleteVersion;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import java.io.IOException;
-import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
 
 import static net.minecraft.launcher.LauncherConstants.MESSAGE_INCOMPATIBLE_REASON;
 import static net.minecraft.launcher.LauncherConstants.URL_BUGS;
 
 public abstract class AbstractGameRunner implements GameRunner, DownloadListener {
     protected static final Logger LOGGER = LogManager.getLogger();
+    private static final long PROGRESS_INTERVAL = 50L;
+    private static final ScheduledExecutorService PROGRESS_SAMPLER = Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder().setDaemon(true).setNameFormat("Download progress").build());
 
     protected final Object lock;
+    private final Object progressLock;
     private final List<DownloadJob> jobs;
     private final List<GameRunnerListener> listeners;
+    private volatile ScheduledFuture<?> progressTask;
+    private volatile boolean progressChanged;
     protected CompleteVersion version;
     private GameInstanceStatus status;
 
     protected AbstractGameRunner() {
         this.lock = new Object();
-        this.jobs = new ArrayList<>();
+        this.progressLock = new Object();
+        this.jobs = new CopyOnWriteArrayList<>();
         this.status = GameInstanceStatus.IDLE;
         this.listeners = Lists.newArrayList();
     }
@@ -110,11 +123,14 @@ public abstract class AbstractGameRunner implements GameRunner, DownloadListener
 
     protected void downloadRequiredFiles(final VersionSyncInfo syncInfo) {
         try {
-            final DownloadJob librariesJob = new DownloadJob("Version & Libraries", false, this);
+            final BandwidthLimiter bandwidthLimiter = new BandwidthLimiter(this.getDownloadRateLimit());
+            final DownloadJob librariesJob = new DownloadJob("Version & Libraries", false, this, DownloadPriority.LAUNCH_CRITICAL);
+            librariesJob.setBandwidthLimiter(bandwidthLimiter);
             this.addJob(librariesJob);
             this.getLauncher().getVersionManager().downloadVersion(syncInfo, librariesJob);
             librariesJob.startDownloading(this.getLauncher().getDownloaderExecutorService());
-            final DownloadJob resourceJob = new DownloadJob("Resources", true, this);
+            final DownloadJob resourceJob = new DownloadJob("Resources", true, this, DownloadPriority.ASSETS);
+            resourceJob.setBandwidthLimiter(bandwidthLimiter);
             this.addJob(resourceJob);
             this.getLauncher().getVersionManager().downloadResources(resourceJob, this.version);
             resourceJob.startDownloading(this.getLauncher().getDownloaderExecutorService());
@@ -124,36 +140,65 @@ public abstract class AbstractGameRunner implements GameRunner, DownloadListener
         }
     }
 
+    protected long getDownloadRateLimit() {
+        return 0L;
+    }
+
     private void updateProgressBar() {
-        synchronized (this.lock) {
+        synchronized (this.progressLock) {
             if (this.hasRemainingJobs()) {
+                if (!this.progressChanged) {
+                    return;
+                }
+                this.progressChanged = false;
                 long total = 0L;
                 long current = 0L;
                 Downloadable longestRunning = null;
                 for (final DownloadJob job : this.jobs) {
-                    for (final Downloadable file : job.getAllFiles()) {
-                        total += file.getMonitor().getTotal();
-                        current += file.getMonitor().getCurrent();
-                        if (longestRunning == null || longestRunning.getEndTime() > 0L || (file.getStartTime() < longestRunning.getStartTime() && file.getEndTime() == 0L)) {
-                            longestRunning = file;
-                        }
+                    total += job.getTotalBytes();
+                    current += job.getCurrentBytes();
+                    final Downloadable running = job.getLongestRunning();
+                    if (running != null && (longestRunning == null || running.getStartTime() < longestRunning.getStartTime())) {
+                        longestRunning = running;
                     }
                 }
                 this.getLauncher().getUserInterface().setDownloadProgress(new DownloadProgress(current, total, (longestRunning == null) ? null : longestRunning.getStatus()));
             } else {
-                this.jobs.clear();
+                this.jobs.removeIf(DownloadJob::isComplete);
+                this.stopProgressSampler();
                 this.getLauncher().getUserInterface().hideDownloadProgress();
             }
         }
     }
 
+    private void sampleProgress() {
+        try {
+            this.updateProgressBar();
+        } catch (RuntimeException e) {
+            AbstractGameRunner.LOGGER.warn("Couldn't update download progress", e);
+        }
+    }
+
+    private void startProgressSampler() {
+        synchronized (this.progressLock) {
+            if (this.progressTask == null) {
+                this.progressTask = AbstractGameRunner.PROGRESS_SAMPLER.scheduleAtFixedRate(this::sampleProgress, 0L, PROGRESS_INTERVAL, TimeUnit.MILLISECONDS);
+            }
+        }
+    }
+
+    private void stopProgressSampler() {
+        if (this.progressTask != null) {
+            this.progressTask.cancel(false);
+            this.progressTask = null;
+        }
+    }
+
     @Override
     public boolean hasRemainingJobs() {
-        synchronized (this.lock) {
-            for (final DownloadJob job : this.jobs) {
-                if (!job.isComplete()) {
-                    return true;
-                }
+        for (final DownloadJob job : this.jobs) {
+            if (!job.isComplete()) {
+                return true;
             }
         }
         return false;
@@ -161,13 +206,14 @@ public abstract class AbstractGameRunner implements GameRunner, DownloadListener
 
     @Override
     public void addJob(final DownloadJob job) {
-        synchronized (this.lock) {
-            this.jobs.add(job);
-        }
+        this.jobs.add(job);
+        this.progressChanged = true;
+        this.startProgressSampler();
     }
 
     @Override
     public void onDownloadJobFinished(final DownloadJob job) {
+        this.progressChanged = true;
         this.updateProgressBar();
         synchronized (this.lock) {
             if (job.getFailures() > 0) {
@@ -191,7 +237,10 @@ public abstract class AbstractGameRunner implements GameRunner, DownloadListener
 
     @Override
     public void onDownloadJobProgressChanged(final DownloadJob job) {
-        this.updateProgressBar();
+        this.progressChanged = true;
+        if (this.progressTask == null) {
+            this.startProgressSampler();
+        }
     }
 
     public void addListener(final GameRunnerListener listener) {
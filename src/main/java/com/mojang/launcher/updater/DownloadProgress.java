@@ -9,7 +9,7 @@ public class DownloadProgress {
     public DownloadProgress(final long current, final long total, final String status) {
         this.current = current;
         this.total = total;
-        this.percent = current / total;
+        this.percent = (total == 0L) ? 0.0f : ((float) current / total);
         this.status = status;
     }
 
@@ -0,0 +1,67 @@
+package com.mojang.launcher.updater.download;
+
+import java.io.InterruptedIOException;
+
+public class BandwidthLimiter {
+    private static final long MAX_WAIT = 1000L;
+
+    private final int[] waiting;
+    private long bytesPerSecond;
+    private double tokens;
+    private long lastRefill;
+
+    public BandwidthLimiter(final long bytesPerSecond) {
+        this.waiting = new int[DownloadPriority.values().length];
+        this.setRate(bytesPerSecond);
+    }
+
+    public synchronized long getRate() {
+        return this.bytesPerSecond;
+    }
+
+    public synchronized void setRate(final long bytesPerSecond) {
+        this.bytesPerSecond = Math.max(0L, bytesPerSecond);
+        this.tokens = Math.min(this.tokens, this.bytesPerSecond);
+        this.lastRefill = System.nanoTime();
+        this.notifyAll();
+    }
+
+    public synchronized void acquire(final long bytes, final DownloadPriority priority) throws InterruptedIOException {
+        if (this.bytesPerSecond <= 0L || bytes <= 0L) {
+            return;
+        }
+        ++this.waiting[priority.ordinal()];
+        try {
+            while (this.bytesPerSecond > 0L) {
+                this.refill();
+                if (this.tokens > 0.0 && !this.isHigherPriorityWaiting(priority)) {
+                    this.tokens -= bytes;
+                    return;
+                }
+                final long wait = (this.tokens > 0.0) ? 10L : (long) Math.ceil(-this.tokens * 1000.0 / this.bytesPerSecond);
+                this.wait(Math.max(1L, Math.min(MAX_WAIT, wait)));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted whilst waiting for bandwidth");
+        } finally {
+            --this.waiting[priority.ordinal()];
+            this.notifyAll();
+        }
+    }
+
+    private boolean isHigherPriorityWaiting(final DownloadPriority priority) {
+        for (int i = 0; i < priority.ordinal(); ++i) {
+            if (this.waiting[i] > 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void refill() {
+        final long now = System.nanoTime();
+        this.tokens = Math.min(this.bytesPerSecond, this.tokens + (now - this.lastRefill) * this.bytesPerSecond / 1.0E9);
+        this.lastRefill = now;
+    }
+}
@@ -5,7 +5,6 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import java.io.File;
-import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.HttpURLConnection;
@@ -30,7 +29,7 @@ public class ChecksummedDownloadable extends Downloadable {
         this.ensureFileWritable(this.getTarget());
         final File target = this.getTarget();
         if (this.localHash == null && target.isFile()) {
-            this.localHash = Downloadable.getDigest(target, "SHA-1", 40);
+            this.localHash = this.getLocalDigest(target, "SHA-1", 40);
         }
         if (this.expectedHash == null) {
             try {
@@ -50,6 +49,7 @@ public class ChecksummedDownloadable extends Downloadable {
                         }
                     }
                 } else {
+                    this.releaseConnection(connection);
                     this.expectedHash = "";
                 }
             } catch (IOException e) {
@@ -60,24 +60,47 @@ public class ChecksummedDownloadable extends Downloadable {
             return "Couldn't find a checksum so assuming our copy is good";
         }
         if (this.expectedHash.equalsIgnoreCase(this.localHash)) {
+            if (this.getObjectStore() != null) {
+                this.getObjectStore().ingest(this.expectedHash, target);
+            }
             return "Remote checksum matches local file";
         }
+        if (this.getObjectStore() != null && this.getObjectStore().materialize(this.expectedHash, target, this.getHashIndex())) {
+            this.localHash = this.expectedHash;
+            this.recordDigest(target, "SHA-1", this.expectedHash);
+            return "Materialized from object store";
+        }
+        if (this.fetchFromMirror(this.expectedHash, target)) {
+            this.localHash = this.expectedHash;
+            if (this.getObjectStore() != null) {
+                this.getObjectStore().ingest(this.expectedHash, target);
+            }
+            return "Downloaded from mirror and checksum matched";
+        }
         try {
+            final PartialDownload partial = new PartialDownload(target, this.getUrl());
             final HttpURLConnection connection = this.makeConnection(this.getUrl());
+            partial.prepare(connection);
             final int status = connection.getResponseCode();
-            if (status == 200) {
-                this.updateExpectedSize(connection);
-                final InputStream inputStream = new MonitoringInputStream(connection.getInputStream(), this.getMonitor());
-                final FileOutputStream outputStream = new FileOutputStream(this.getTarget());
-                final String digest = Downloadable.copyAndDigest(inputStream, outputStream, "SHA", 40);
+            if (partial.accepts(status)) {
+                final String digest = this.copyToPartial(connection, partial, "SHA", 40);
                 if (this.expectedHash.length() == 0) {
+                    partial.commit();
+                    this.recordDigest(target, "SHA-1", digest);
                     return "Didn't have checksum so assuming the downloaded file is good";
                 }
                 if (this.expectedHash.equalsIgnoreCase(digest)) {
+                    partial.commit();
+                    this.recordDigest(target, "SHA-1", digest);
+                    if (this.getObjectStore() != null) {
+                        this.getObjectStore().ingest(this.expectedHash, target);
+                    }
                     return "Downloaded successfully and checksum matched";
                 }
+                partial.discard();
                 throw new RuntimeException(String.format("Checksum did not match downloaded file (Checksum was %s, downloaded %s)", this.expectedHash, digest));
             } else {
+                this.releaseConnection(connection);
                 if (this.getTarget().isFile()) {
                     return "Couldn't connect to server (responded with " + status + ") but have local file, assuming it's good";
                 }
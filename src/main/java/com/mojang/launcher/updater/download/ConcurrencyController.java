@@ -0,0 +1,242 @@
+package com.mojang.launcher.updater.download;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.net.URL;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+public class ConcurrencyController {
+    private static final Logger LOGGER = LogManager.getLogger();
+    private static final int MIN_LIMIT = 1;
+    private static final long WINDOW_NANOS = TimeUnit.SECONDS.toNanos(1L);
+    private static final long DECREASE_COOLDOWN_NANOS = TimeUnit.SECONDS.toNanos(1L);
+    private static final long SMALL_REQUEST = 262144L;
+    private static final double LATENCY_TOLERANCE = 3.0;
+    private static final double PLATEAU_GAIN = 1.05;
+    private static final int HTTP_TOO_MANY_REQUESTS = 429;
+
+    private final int initialLimit;
+    private final int maxLimit;
+    private final ConcurrentMap<String, HostLimiter> hosts;
+    private final AtomicIntegerArray activeJobs;
+
+    public ConcurrencyController(final int initialLimit, final int maxLimit) {
+        this.initialLimit = Math.max(MIN_LIMIT, Math.min(initialLimit, maxLimit));
+        this.maxLimit = maxLimit;
+        this.hosts = new ConcurrentHashMap<>();
+        this.activeJobs = new AtomicIntegerArray(DownloadPriority.values().length);
+    }
+
+    private static String getHost(final URL url) {
+        return (url == null || url.getHost() == null) ? "" : url.getHost().toLowerCase();
+    }
+
+    private HostLimiter getLimiter(final String host) {
+        return this.hosts.computeIfAbsent(host, key -> new HostLimiter(key, this.initialLimit, this.maxLimit));
+    }
+
+    public void jobStarted(final DownloadPriority priority) {
+        this.activeJobs.incrementAndGet(priority.ordinal());
+    }
+
+    public void jobFinished(final DownloadPriority priority) {
+        this.activeJobs.decrementAndGet(priority.ordinal());
+    }
+
+    private double getShare(final DownloadPriority priority) {
+        for (int i = 0; i < priority.ordinal(); ++i) {
+            if (this.activeJobs.get(i) > 0) {
+                return priority.getYieldShare();
+            }
+        }
+        return 1.0;
+    }
+
+    public Permit tryAcquire(final URL url, final DownloadPriority priority) {
+        final HostLimiter limiter = this.getLimiter(getHost(url));
+        return limiter.tryAcquire(this.getShare(priority)) ? new Permit(limiter) : null;
+    }
+
+    public void onResponse(final URL url, final int status) {
+        if (status == HTTP_TOO_MANY_REQUESTS || status >= 500) {
+            this.getLimiter(getHost(url)).decrease(0.5, "server responded with " + status);
+        }
+    }
+
+    public Map<String, HostState> getState() {
+        final Map<String, HostState> state = new TreeMap<>();
+        for (final HostLimiter limiter : this.hosts.values()) {
+            state.put(limiter.host, limiter.snapshot());
+        }
+        return state;
+    }
+
+    @Override
+    public String toString() {
+        return "ConcurrencyController{hosts=" + this.getState().values() + '}';
+    }
+
+    public static class Permit {
+        private final HostLimiter limiter;
+        private final long started;
+        private boolean released;
+
+        private Permit(final HostLimiter limiter) {
+            this.limiter = limiter;
+            this.started = System.nanoTime();
+        }
+
+        public void release(final long bytes, final boolean congested) {
+            if (this.released) {
+                return;
+            }
+            this.released = true;
+            this.limiter.release(bytes, System.nanoTime() - this.started, congested);
+        }
+    }
+
+    public static class HostState {
+        private final String host;
+        private final int limit;
+        private final int inFlight;
+        private final long bytesPerSecond;
+        private final long latencyMillis;
+        private final int throttled;
+
+        private HostState(final String host, final int limit, final int inFlight, final long bytesPerSecond, final long latencyMillis, final int throttled) {
+            this.host = host;
+            this.limit = limit;
+            this.inFlight = inFlight;
+            this.bytesPerSecond = bytesPerSecond;
+            this.latencyMillis = latencyMillis;
+            this.throttled = throttled;
+        }
+
+        public String getHost() {
+            return this.host;
+        }
+
+        public int getLimit() {
+            return this.limit;
+        }
+
+        public int getInFlight() {
+            return this.inFlight;
+        }
+
+        public long getBytesPerSecond() {
+            return this.bytesPerSecond;
+        }
+
+        public long getLatencyMillis() {
+            return this.latencyMillis;
+        }
+
+        public int getThrottled() {
+            return this.throttled;
+        }
+
+        @Override
+        public String toString() {
+            return "HostState{host='" + this.host + "', limit=" + this.limit + ", inFlight=" + this.inFlight + ", bytesPerSecond=" + this.bytesPerSecond + ", latencyMillis=" + this.latencyMillis + ", throttled=" + this.throttled + '}';
+        }
+    }
+
+    private static class HostLimiter {
+        private final String host;
+        private final int maxLimit;
+        private double limit;
+        private int inFlight;
+        private int throttled;
+        private double latency;
+        private double minLatency;
+        private long lastDecrease;
+        private long windowStart;
+        private long windowBytes;
+        private double windowLimit;
+        private double bytesPerSecond;
+        private boolean plateaued;
+
+        HostLimiter(final String host, final int initialLimit, final int maxLimit) {
+            this.host = host;
+            this.maxLimit = maxLimit;
+            this.limit = initialLimit;
+            this.windowLimit = initialLimit;
+            this.windowStart = System.nanoTime();
+            this.lastDecrease = this.windowStart - DECREASE_COOLDOWN_NANOS;
+        }
+
+        synchronized boolean tryAcquire(final double share) {
+            if (this.inFlight >= Math.max(MIN_LIMIT, (int) (this.limit * share))) {
+                return false;
+            }
+            ++this.inFlight;
+            return true;
+        }
+
+        synchronized void release(final long bytes, final long nanos, final boolean congested) {
+            --this.inFlight;
+            if (congested) {
+                this.decrease(0.5, "request failed");
+            } else if (bytes > 0L) {
+                this.sample(bytes, nanos);
+            }
+        }
+
+        private void sample(final long bytes, final long nanos) {
+            if (bytes < SMALL_REQUEST) {
+                final double millis = nanos / 1000000.0;
+                this.latency = (this.latency == 0.0) ? millis : (this.latency * 0.8 + millis * 0.2);
+                this.minLatency = (this.minLatency == 0.0) ? millis : Math.min(this.minLatency, millis);
+                if (this.latency > this.minLatency * LATENCY_TOLERANCE && this.minLatency > 0.0) {
+                    this.decrease(0.9, "latency rose to " + (long) this.latency + "ms");
+                    this.minLatency = Math.min(this.latency, this.minLatency * 1.5);
+                    return;
+                }
+            }
+            this.windowBytes += bytes;
+            final long now = System.nanoTime();
+            if (now - this.windowStart >= WINDOW_NANOS) {
+                final double rate = this.windowBytes * 1.0E9 / (now - this.windowStart);
+                if (this.limit > this.windowLimit && rate < this.bytesPerSecond * PLATEAU_GAIN) {
+                    this.plateaued = true;
+                    this.limit = Math.max(this.windowLimit, this.limit - 1.0);
+                } else if (rate > this.bytesPerSecond * PLATEAU_GAIN) {
+                    this.plateaued = false;
+                }
+                this.bytesPerSecond = rate;
+                this.windowLimit = this.limit;
+                this.windowStart = now;
+                this.windowBytes = 0L;
+            }
+            if (!this.plateaued && this.inFlight + 1 >= (int) this.limit) {
+                this.limit = Math.min(this.maxLimit, this.limit + 1.0 / this.limit);
+            }
+        }
+
+        synchronized void decrease(final double factor, final String reason) {
+            final long now = System.nanoTime();
+            if (now - this.lastDecrease < DECREASE_COOLDOWN_NANOS) {
+                return;
+            }
+            if (factor < 0.9) {
+                ++this.throttled;
+            }
+            this.lastDecrease = now;
+            this.plateaued = false;
+            this.limit = Math.max(MIN_LIMIT, this.limit * factor);
+            this.windowLimit = this.limit;
+            ConcurrencyController.LOGGER.debug("Limiting " + this.host + " to " + (int) this.limit + " concurrent requests (" + reason + ")");
+        }
+
+        synchronized HostState snapshot() {
+            return new HostState(this.host, (int) this.limit, this.inFlight, (long) this.bytesPerSecond, (long) this.latency, this.throttled);
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package com.mojang.launcher.updater.download;
+
+import com.mojang.launcher.OperatingSystem;
+import com.mojang.launcher.updater.ExceptionalThreadPoolExecutor;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+public class DigestEngine {
+    private static final Logger LOGGER = LogManager.getLogger();
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+    private static final long MAP_THRESHOLD = 1048576L;
+    private static final long MAP_WINDOW = 67108864L;
+    private static final int BUFFER_SIZE = 65536;
+    private static final ThreadLocal<ByteBuffer> BUFFERS = ThreadLocal.withInitial(() -> ByteBuffer.allocate(BUFFER_SIZE));
+    private static final boolean CAN_MAP = OperatingSystem.getCurrentPlatform() != OperatingSystem.WINDOWS;
+    private static final ThreadPoolExecutor EXECUTOR;
+
+    static {
+        final int threads = Math.max(2, Math.min(4, Runtime.getRuntime().availableProcessors()));
+        EXECUTOR = new ExceptionalThreadPoolExecutor(threads, threads, 30L, TimeUnit.SECONDS);
+        EXECUTOR.allowCoreThreadTimeOut(true);
+    }
+
+    public static String toHex(final byte[] digest) {
+        return toHex(digest, digest.length * 2);
+    }
+
+    public static String toHex(final byte[] digest, final int hashLength) {
+        final char[] chars = new char[Math.max(hashLength, digest.length * 2)];
+        final int offset = chars.length - digest.length * 2;
+        Arrays.fill(chars, 0, offset, '0');
+        for (int i = 0; i < digest.length; ++i) {
+            chars[offset + i * 2] = HEX[(digest[i] >> 4) & 0xF];
+            chars[offset + i * 2 + 1] = HEX[digest[i] & 0xF];
+        }
+        return new String(chars);
+    }
+
+    public static MessageDigest getInstance(final String algorithm) {
+        try {
+            return MessageDigest.getInstance(algorithm);
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException("Missing Digest." + algorithm, e);
+        }
+    }
+
+    public static String digest(final File file, final String algorithm) throws IOException {
+        final MessageDigest digest = getInstance(algorithm);
+        update(file, digest);
+        return toHex(digest.digest());
+    }
+
+    public static void update(final File file, final MessageDigest digest) throws IOException {
+        try (final FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            final long size = channel.size();
+            if (CAN_MAP && size >= MAP_THRESHOLD) {
+                for (long position = 0L; position < size; position += MAP_WINDOW) {
+                    final MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(MAP_WINDOW, size - position));
+                    digest.update(mapped);
+                }
+            } else {
+                final ByteBuffer buffer = BUFFERS.get();
+                buffer.clear();
+                while (channel.read(buffer) > 0) {
+                    digest.update(buffer.array(), 0, buffer.position());
+                    buffer.clear();
+                }
+            }
+        }
+    }
+
+    public static Map<File, String> digestAll(final Collection<File> files, final String algorithm) {
+        final Map<File, Future<String>> futures = new LinkedHashMap<>();
+        for (final File file : files) {
+            futures.put(file, EXECUTOR.submit(() -> {
+                try {
+                    return digest(file, algorithm);
+                } catch (IOException e) {
+                    DigestEngine.LOGGER.debug("Couldn't hash " + file, e);
+                    return null;
+                }
+            }));
+        }
+        final Map<File, String> result = new LinkedHashMap<>();
+        for (final Map.Entry<File, Future<String>> entry : futures.entrySet()) {
+            try {
+                result.put(entry.getKey(), entry.getValue().get());
+            } catch (ExecutionException e) {
+                result.put(entry.getKey(), null);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        return result;
+    }
+}
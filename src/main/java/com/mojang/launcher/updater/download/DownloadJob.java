@@ -4,34 +4,52 @@ import org.apache.commons.lang3.time.StopWatch;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.URL;
 import java.util.*;
-import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
 
 public class DownloadJob {
     private static final Logger LOGGER = LogManager.getLogger();
     private static final int MAX_ATTEMPTS_PER_FILE = 5;
-    private static final long ASSUMED_AVERAGE_FILE_SIZE = 5242880L;
+    static final long ASSUMED_AVERAGE_FILE_SIZE = 5242880L;
 
-    private final Queue<Downloadable> remainingFiles;
+    private final DownloadScheduler scheduler;
+    private final DownloadPriority priority;
     private final List<Downloadable> allFiles;
     private final List<Downloadable> failures;
     private final List<Downloadable> successful;
+    private final Deque<Downloadable> running;
+    private final LongAdder current;
+    private final LongAdder total;
     private final DownloadListener listener;
     private final String name;
     private final boolean ignoreFailures;
     private final AtomicInteger remainingThreads;
     private final StopWatch stopWatch;
-    private boolean started;
+    private final CountDownLatch finished;
+    private BandwidthLimiter bandwidthLimiter;
+    private volatile boolean started;
+    private volatile boolean cancelled;
 
-    private DownloadJob(final String name, final boolean ignoreFailures, final DownloadListener listener, final Collection<Downloadable> files) {
-        this.remainingFiles = new ConcurrentLinkedQueue<>();
+    private DownloadJob(final String name, final boolean ignoreFailures, final DownloadListener listener, final DownloadScheduler scheduler, final DownloadPriority priority, final Collection<Downloadable> files) {
+        this.scheduler = scheduler;
+        this.priority = priority;
         this.allFiles = Collections.synchronizedList(new ArrayList<Downloadable>());
         this.failures = Collections.synchronizedList(new ArrayList<Downloadable>());
         this.successful = Collections.synchronizedList(new ArrayList<Downloadable>());
+        this.running = new ConcurrentLinkedDeque<>();
+        this.current = new LongAdder();
+        this.total = new LongAdder();
         this.remainingThreads = new AtomicInteger();
         this.stopWatch = new StopWatch();
+        this.finished = new CountDownLatch(1);
         this.name = name;
         this.ignoreFailures = ignoreFailures;
         this.listener = listener;
@@ -41,7 +59,15 @@ public class DownloadJob {
     }
 
     public DownloadJob(final String name, final boolean ignoreFailures, final DownloadListener listener) {
-        this(name, ignoreFailures, listener, null);
+        this(name, ignoreFailures, listener, new WorkStealingDownloadScheduler(), DownloadPriority.LAUNCH_CRITICAL, null);
+    }
+
+    public DownloadJob(final String name, final boolean ignoreFailures, final DownloadListener listener, final DownloadPriority priority) {
+        this(name, ignoreFailures, listener, new WorkStealingDownloadScheduler(), priority, null);
+    }
+
+    public DownloadJob(final String name, final boolean ignoreFailures, final DownloadListener listener, final DownloadScheduler scheduler) {
+        this(name, ignoreFailures, listener, scheduler, DownloadPriority.LAUNCH_CRITICAL, null);
     }
 
     public void addDownloadables(final Collection<Downloadable> downloadables) {
@@ -49,7 +75,6 @@ public class DownloadJob {
             throw new IllegalStateException("Cannot add to download job that has already started");
         }
         this.allFiles.addAll(downloadables);
-        this.remainingFiles.addAll(downloadables);
         for (final Downloadable downloadable : downloadables) {
             if (downloadable.getExpectedSize() == 0L) {
                 downloadable.getMonitor().setTotal(ASSUMED_AVERAGE_FILE_SIZE);
@@ -66,7 +91,6 @@ public class DownloadJob {
         }
         for (final Downloadable downloadable : downloadables) {
             this.allFiles.add(downloadable);
-            this.remainingFiles.add(downloadable);
             if (downloadable.getExpectedSize() == 0L) {
                 downloadable.getMonitor().setTotal(ASSUMED_AVERAGE_FILE_SIZE);
             } else {
@@ -84,58 +108,152 @@ public class DownloadJob {
         this.stopWatch.start();
         if (this.allFiles.isEmpty()) {
             DownloadJob.LOGGER.info("Download job '" + this.name + "' skipped as there are no files to download");
+            this.finished.countDown();
             this.listener.onDownloadJobFinished(this);
         } else {
             final int threads = executorService.getMaximumPoolSize();
             this.remainingThreads.set(threads);
+            final ConcurrencyController controller = HttpTransport.getConcurrencyController();
+            if (controller != null) {
+                controller.jobStarted(this.priority);
+            }
+            this.scheduler.schedule(this.allFiles, threads);
             DownloadJob.LOGGER.info("Download job '" + this.name + "' started (" + threads + " threads, " + this.allFiles.size() + " files)");
             for (int i = 0; i < threads; ++i) {
-                executorService.submit(DownloadJob.this::popAndDownload);
+                final int worker = i;
+                executorService.submit(() -> this.popAndDownload(worker));
             }
         }
     }
 
-    private void popAndDownload() {
+    private void popAndDownload(final int worker) {
         Downloadable downloadable;
-        while ((downloadable = this.remainingFiles.poll()) != null) {
+        while (!this.cancelled && (downloadable = this.pollScheduler(worker)) != null) {
+            this.download(downloadable);
+        }
+        if (this.remainingThreads.decrementAndGet() <= 0) {
+            final ConcurrencyController controller = HttpTransport.getConcurrencyController();
+            if (controller != null) {
+                controller.jobFinished(this.priority);
+            }
+            this.saveHashIndexes();
+            this.finished.countDown();
+            this.listener.onDownloadJobFinished(this);
+        }
+    }
+
+    private void download(final Downloadable downloadable) {
+        if (downloadable.getNumAttempts() > MAX_ATTEMPTS_PER_FILE) {
+            if (!this.ignoreFailures) {
+                this.failures.add(downloadable);
+            }
+            DownloadJob.LOGGER.error("Gave up trying to download " + downloadable.getUrl() + " for job '" + this.name + "'");
+        } else {
+            final ConcurrencyController controller = HttpTransport.getConcurrencyController();
+            final URL requestUrl = downloadable.getRequestUrl();
+            final ConcurrencyController.Permit permit = (controller == null) ? null : controller.tryAcquire(requestUrl, this.priority);
+            if (controller != null && permit == null) {
+                this.scheduler.defer(downloadable);
+                return;
+            }
             if (downloadable.getStartTime() == 0L) {
                 downloadable.setStartTime(System.currentTimeMillis());
             }
-            if (downloadable.getNumAttempts() > MAX_ATTEMPTS_PER_FILE) {
-                if (!this.ignoreFailures) {
-                    this.failures.add(downloadable);
+            final long before = downloadable.getMonitor().getCurrent();
+            this.running.addLast(downloadable);
+            try {
+                DownloadJob.LOGGER.info("Attempting to download " + downloadable.getTarget() + " for job '" + this.name + "'... (try " + downloadable.getNumAttempts() + ")");
+                final String result = downloadable.download();
+                this.successful.add(downloadable);
+                if (permit != null) {
+                    permit.release(downloadable.getMonitor().getCurrent() - before, false);
+                    this.scheduler.wake(requestUrl);
                 }
-                DownloadJob.LOGGER.error("Gave up trying to download " + downloadable.getUrl() + " for job '" + this.name + "'");
-            } else {
-                try {
-                    DownloadJob.LOGGER.info("Attempting to download " + downloadable.getTarget() + " for job '" + this.name + "'... (try " + downloadable.getNumAttempts() + ")");
-                    final String result = downloadable.download();
-                    this.successful.add(downloadable);
-                    downloadable.setEndTime(System.currentTimeMillis());
-                    downloadable.getMonitor().setCurrent(downloadable.getMonitor().getTotal());
-                    DownloadJob.LOGGER.info("Finished downloading " + downloadable.getTarget() + " for job '" + this.name + "'" + ": " + result);
-                } catch (Throwable t) {
-                    DownloadJob.LOGGER.warn("Couldn't download " + downloadable.getUrl() + " for job '" + this.name + "'", t);
-                    downloadable.getMonitor().setCurrent(downloadable.getMonitor().getTotal());
-                    this.remainingFiles.add(downloadable);
+                downloadable.setEndTime(System.currentTimeMillis());
+                downloadable.getMonitor().setCurrent(downloadable.getMonitor().getTotal());
+                DownloadJob.LOGGER.info("Finished downloading " + downloadable.getTarget() + " for job '" + this.name + "'" + ": " + result);
+            } catch (Throwable t) {
+                if (permit != null) {
+                    permit.release(downloadable.getMonitor().getCurrent() - before, t instanceof IOException);
+                    this.scheduler.wake(requestUrl);
                 }
+                DownloadJob.LOGGER.warn("Couldn't download " + downloadable.getUrl() + " for job '" + this.name + "'", t);
+                downloadable.getMonitor().setCurrent(downloadable.getMonitor().getTotal());
+                this.scheduler.retry(downloadable);
+            } finally {
+                this.running.remove(downloadable);
             }
         }
-        if (this.remainingThreads.decrementAndGet() <= 0) {
-            this.listener.onDownloadJobFinished(this);
+    }
+
+    private void saveHashIndexes() {
+        final Set<HashIndex> indexes = Collections.newSetFromMap(new IdentityHashMap<>());
+        synchronized (this.allFiles) {
+            for (final Downloadable downloadable : this.allFiles) {
+                if (downloadable.getHashIndex() != null) {
+                    indexes.add(downloadable.getHashIndex());
+                }
+            }
+        }
+        for (final HashIndex index : indexes) {
+            index.save();
+        }
+    }
+
+    private Downloadable pollScheduler(final int worker) {
+        try {
+            return this.scheduler.next(worker);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            DownloadJob.LOGGER.warn("Interrupted whilst waiting for work in job '" + this.name + "'");
+            return null;
+        }
+    }
+
+    void consumeBandwidth(final long bytes) throws InterruptedIOException {
+        if (this.cancelled) {
+            throw new InterruptedIOException("Download job '" + this.name + "' was cancelled");
         }
+        final BandwidthLimiter limiter = this.bandwidthLimiter;
+        if (limiter != null) {
+            limiter.acquire(bytes, this.priority);
+        }
+    }
+
+    public DownloadPriority getPriority() {
+        return this.priority;
+    }
+
+    public BandwidthLimiter getBandwidthLimiter() {
+        return this.bandwidthLimiter;
+    }
+
+    public void setBandwidthLimiter(final BandwidthLimiter bandwidthLimiter) {
+        this.bandwidthLimiter = bandwidthLimiter;
     }
 
     public boolean shouldIgnoreFailures() {
         return this.ignoreFailures;
     }
 
+    public void cancel() {
+        this.cancelled = true;
+    }
+
+    public boolean awaitTermination(final long timeout, final TimeUnit unit) throws InterruptedException {
+        return !this.started || this.finished.await(timeout, unit);
+    }
+
+    public boolean isCancelled() {
+        return this.cancelled;
+    }
+
     public boolean isStarted() {
         return this.started;
     }
 
     public boolean isComplete() {
-        return this.started && this.remainingFiles.isEmpty() && this.remainingThreads.get() == 0;
+        return this.started && this.scheduler.isEmpty() && this.remainingThreads.get() == 0;
     }
 
     public int getFailures() {
@@ -154,6 +272,24 @@ public class DownloadJob {
         this.listener.onDownloadJobProgressChanged(this);
     }
 
+    void addProgress(final long current, final long total) {
+        this.current.add(current);
+        this.total.add(total);
+        this.updateProgress();
+    }
+
+    public long getCurrentBytes() {
+        return this.current.sum();
+    }
+
+    public long getTotalBytes() {
+        return this.total.sum();
+    }
+
+    public Downloadable getLongestRunning() {
+        return this.running.peekFirst();
+    }
+
     public List<Downloadable> getAllFiles() {
         return this.allFiles;
     }
@@ -0,0 +1,17 @@
+package com.mojang.launcher.updater.download;
+
+public enum DownloadPriority {
+    LAUNCH_CRITICAL(1.0),
+    ASSETS(0.5),
+    BACKGROUND(0.25);
+
+    private final double yieldShare;
+
+    DownloadPriority(final double yieldShare) {
+        this.yieldShare = yieldShare;
+    }
+
+    public double getYieldShare() {
+        return this.yieldShare;
+    }
+}
@@ -0,0 +1,18 @@
+package com.mojang.launcher.updater.download;
+
+import java.net.URL;
+import java.util.Collection;
+
+public interface DownloadScheduler {
+    void schedule(final Collection<Downloadable> downloadables, final int workers);
+
+    Downloadable next(final int worker) throws InterruptedException;
+
+    void retry(final Downloadable downloadable);
+
+    void defer(final Downloadable downloadable);
+
+    void wake(final URL url);
+
+    boolean isEmpty();
+}
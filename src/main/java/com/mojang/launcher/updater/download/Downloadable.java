@@ -4,13 +4,14 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import java.io.*;
-import java.math.BigInteger;
 import java.net.HttpURLConnection;
+import java.net.MalformedURLException;
 import java.net.Proxy;
 import java.net.URL;
-import java.security.DigestInputStream;
 import java.security.MessageDigest;
-import java.security.NoSuchAlgorithmException;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 public abstract class Downloadable {
     private static final Logger LOGGER = LogManager.getLogger();
@@ -20,6 +21,10 @@ public abstract class Downloadable {
     private final boolean forceDownload;
     private final Proxy proxy;
     private final ProgressContainer monitor;
+    private final Set<URL> failedMirrors;
+    private ObjectStore objectStore;
+    private HashIndex hashIndex;
+    private MirrorList mirrorList;
     protected int numAttempts;
     private long startTime;
     private long expectedSize;
@@ -31,23 +36,17 @@ public abstract class Downloadable {
         this.target = localFile;
         this.forceDownload = forceDownload;
         this.monitor = new ProgressContainer();
+        this.failedMirrors = Collections.newSetFromMap(new ConcurrentHashMap<>());
     }
 
     public static String getDigest(final File file, final String algorithm, final int hashLength) {
-        DigestInputStream stream = null;
         try {
-            stream = new DigestInputStream(new FileInputStream(file), MessageDigest.getInstance(algorithm));
-            final byte[] buffer = new byte[65536];
-            int read;
-            do {
-                read = stream.read(buffer);
-            } while (read > 0);
+            final MessageDigest digest = DigestEngine.getInstance(algorithm);
+            DigestEngine.update(file, digest);
+            return DigestEngine.toHex(digest.digest(), hashLength);
         } catch (Exception ignored) {
             return null;
-        } finally {
-            closeSilently(stream);
         }
-        return String.format("%1$0" + hashLength + "x", new BigInteger(1, stream.getMessageDigest().digest()));
     }
 
     public static void closeSilently(final Closeable closeable) {
@@ -63,11 +62,11 @@ public abstract class Downloadable {
     public static String copyAndDigest(final InputStream inputStream, final OutputStream outputStream, final String algorithm, final int hashLength) throws IOException {
         MessageDigest digest;
         try {
-            digest = MessageDigest.getInstance(algorithm);
-        } catch (NoSuchAlgorithmException e) {
+            digest = DigestEngine.getInstance(algorithm);
+        } catch (RuntimeException e) {
             closeSilently(inputStream);
             closeSilently(outputStream);
-            throw new RuntimeException("Missing Digest." + algorithm, e);
+            throw e;
         }
         final byte[] buffer = new byte[65536];
         try {
@@ -79,7 +78,7 @@ public abstract class Downloadable {
             closeSilently(inputStream);
             closeSilently(outputStream);
         }
-        return String.format("%1$0" + hashLength + "x", new BigInteger(1, digest.digest()));
+        return DigestEngine.toHex(digest.digest(), hashLength);
     }
 
     public ProgressContainer getMonitor() {
@@ -97,24 +96,128 @@ public abstract class Downloadable {
     public abstract String download() throws IOException;
 
     protected void updateExpectedSize(final HttpURLConnection connection) {
+        this.updateExpectedSize(connection, 0L);
+    }
+
+    private void updateExpectedSize(final HttpURLConnection connection, final long offset) {
         if (this.expectedSize == 0L) {
-            this.monitor.setTotal(connection.getContentLength());
-            this.setExpectedSize(connection.getContentLength());
+            final long contentLength = connection.getContentLength();
+            final long size = (contentLength < 0L) ? contentLength : (offset + contentLength);
+            this.monitor.setTotal(size);
+            this.setExpectedSize(size);
         } else {
             this.monitor.setTotal(this.expectedSize);
         }
     }
 
+    protected String copyToPartial(final HttpURLConnection connection, final PartialDownload partial, final String algorithm, final int hashLength) throws IOException {
+        final long offset = partial.begin(connection);
+        this.updateExpectedSize(connection, offset);
+        this.monitor.setCurrent(offset);
+        return partial.transfer(new MonitoringInputStream(connection.getInputStream(), this.monitor), connection.getContentLength(), algorithm, hashLength);
+    }
+
     protected HttpURLConnection makeConnection(final URL url) throws IOException {
-        final HttpURLConnection connection = (HttpURLConnection) url.openConnection(this.proxy);
-        connection.setUseCaches(false);
-        connection.setDefaultUseCaches(false);
-        connection.setRequestProperty("Cache-Control", "no-store,max-age=0,no-cache");
-        connection.setRequestProperty("Expires", "0");
-        connection.setRequestProperty("Pragma", "no-cache");
-        connection.setConnectTimeout(5000);
-        connection.setReadTimeout(30000);
-        return connection;
+        return HttpTransport.openConnection(url, this.proxy);
+    }
+
+    protected void releaseConnection(final HttpURLConnection connection) {
+        HttpTransport.release(connection);
+    }
+
+    public ObjectStore getObjectStore() {
+        return this.objectStore;
+    }
+
+    public void setObjectStore(final ObjectStore objectStore) {
+        this.objectStore = objectStore;
+    }
+
+    public HashIndex getHashIndex() {
+        return this.hashIndex;
+    }
+
+    public void setHashIndex(final HashIndex hashIndex) {
+        this.hashIndex = hashIndex;
+    }
+
+    public MirrorList getMirrorList() {
+        return this.mirrorList;
+    }
+
+    public void setMirrorList(final MirrorList mirrorList) {
+        this.mirrorList = mirrorList;
+    }
+
+    public URL getRequestUrl() {
+        return this.url;
+    }
+
+    protected URL getMirrorUrl(final String hash) {
+        if (this.mirrorList == null || this.mirrorList.isEmpty() || hash == null || hash.length() != 40) {
+            return null;
+        }
+        for (final URL mirror : this.mirrorList.getMirrors()) {
+            if (!this.failedMirrors.contains(mirror)) {
+                try {
+                    return MirrorList.getObjectUrl(mirror, hash);
+                } catch (MalformedURLException e) {
+                    this.failedMirrors.add(mirror);
+                }
+            }
+        }
+        return null;
+    }
+
+    protected boolean fetchFromMirror(final String hash, final File target) {
+        if (this.mirrorList == null || this.mirrorList.isEmpty() || hash == null || hash.length() != 40) {
+            return false;
+        }
+        for (final URL mirror : this.mirrorList.getMirrors()) {
+            if (this.failedMirrors.contains(mirror)) {
+                continue;
+            }
+            try {
+                final URL url = MirrorList.getObjectUrl(mirror, hash);
+                final PartialDownload partial = PartialDownload.forObject(target, url, hash);
+                final HttpURLConnection connection = this.makeConnection(url);
+                partial.prepare(connection);
+                final int status = connection.getResponseCode();
+                if (!partial.accepts(status)) {
+                    this.releaseConnection(connection);
+                    this.failedMirrors.add(mirror);
+                    continue;
+                }
+                final String digest = this.copyToPartial(connection, partial, "SHA-1", 40);
+                if (hash.equalsIgnoreCase(digest)) {
+                    partial.commit();
+                    this.recordDigest(target, "SHA-1", digest);
+                    return true;
+                }
+                partial.discard();
+                this.failedMirrors.add(mirror);
+                Downloadable.LOGGER.warn("Mirror " + mirror + " served a bad copy of " + hash + " (hashed to " + digest + ")");
+            } catch (IOException e) {
+                Downloadable.LOGGER.debug("Couldn't fetch " + hash + " from mirror " + mirror, e);
+                this.mirrorList.markFailed(mirror);
+                this.failedMirrors.add(mirror);
+            }
+        }
+        PartialDownload.discardObject(target, hash);
+        return false;
+    }
+
+    protected String getLocalDigest(final File file, final String algorithm, final int hashLength) {
+        if (this.hashIndex == null) {
+            return Downloadable.getDigest(file, algorithm, hashLength);
+        }
+        return this.hashIndex.getDigest(file, algorithm, hashLength);
+    }
+
+    protected void recordDigest(final File file, final String algorithm, final String digest) {
+        if (this.hashIndex != null) {
+            this.hashIndex.record(file, algorithm, digest);
+        }
     }
 
     public URL getUrl() {
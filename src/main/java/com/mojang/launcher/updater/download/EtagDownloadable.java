@@ -1,9 +1,7 @@
 package com.mojang.launcher.updater.download;
 
 import java.io.File;
-import java.io.FileOutputStream;
 import java.io.IOException;
-import java.io.InputStream;
 import java.net.HttpURLConnection;
 import java.net.Proxy;
 import java.net.URL;
@@ -27,25 +25,31 @@ public class EtagDownloadable extends Downloadable {
         ++this.numAttempts;
         this.ensureFileWritable(this.getTarget());
         try {
+            final PartialDownload partial = new PartialDownload(this.getTarget(), this.getUrl());
             final HttpURLConnection connection = this.makeConnection(this.getUrl());
+            partial.prepare(connection);
             final int status = connection.getResponseCode();
             if (status == 304) {
+                this.releaseConnection(connection);
                 return "Used own copy as it matched etag";
             }
-            if (status == 200) {
-                this.updateExpectedSize(connection);
-                final InputStream inputStream = new MonitoringInputStream(connection.getInputStream(), this.getMonitor());
-                final FileOutputStream outputStream = new FileOutputStream(this.getTarget());
-                final String md5 = Downloadable.copyAndDigest(inputStream, outputStream, "MD5", 32);
+            if (partial.accepts(status)) {
+                final String md5 = this.copyToPartial(connection, partial, "MD5", 32);
                 final String etag = getEtag(connection.getHeaderField("ETag"));
                 if (etag.contains("-")) {
+                    partial.commit();
+                    this.recordDigest(this.getTarget(), "MD5", md5);
                     return "Didn't have etag so assuming our copy is good";
                 }
                 if (etag.equalsIgnoreCase(md5)) {
+                    partial.commit();
+                    this.recordDigest(this.getTarget(), "MD5", md5);
                     return "Downloaded successfully and etag matched";
                 }
+                partial.discard();
                 throw new RuntimeException(String.format("E-tag did not match downloaded MD5 (ETag was %s, downloaded %s)", etag, md5));
             } else {
+                this.releaseConnection(connection);
                 if (this.getTarget().isFile()) {
                     return "Couldn't connect to server (responded with " + status + ") but have local file, assuming it's good";
                 }
@@ -63,7 +67,7 @@ public class EtagDownloadable extends Downloadable {
     protected HttpURLConnection makeConnection(final URL url) throws IOException {
         final HttpURLConnection connection = super.makeConnection(url);
         if (!this.shouldIgnoreLocal() && this.getTarget().isFile()) {
-            connection.setRequestProperty("If-None-Match", Downloadable.getDigest(this.getTarget(), "MD5", 32));
+            connection.setRequestProperty("If-None-Match", this.getLocalDigest(this.getTarget(), "MD5", 32));
         }
         return connection;
     }
@@ -0,0 +1,172 @@
+package com.mojang.launcher.updater.download;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import com.google.gson.reflect.TypeToken;
+import org.apache.commons.io.FileUtils;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+public class HashIndex {
+    private static final Logger LOGGER = LogManager.getLogger();
+    private static final long RACY_WINDOW = 2000L;
+
+    private final File indexFile;
+    private final Gson gson;
+    private final Map<String, Entry> entries;
+    private volatile boolean dirty;
+
+    public HashIndex(final File indexFile) {
+        this.indexFile = indexFile;
+        this.gson = new Gson();
+        this.entries = new ConcurrentHashMap<>();
+        this.load();
+    }
+
+    private static String getAlgorithmKey(final String algorithm) {
+        if (algorithm.equalsIgnoreCase("MD5")) {
+            return "md5";
+        }
+        if (algorithm.equalsIgnoreCase("SHA") || algorithm.equalsIgnoreCase("SHA-1")) {
+            return "sha1";
+        }
+        return null;
+    }
+
+    private void load() {
+        if (!this.indexFile.isFile()) {
+            return;
+        }
+        try {
+            final Map<String, Entry> saved = this.gson.fromJson(FileUtils.readFileToString(this.indexFile, UTF_8), new TypeToken<HashMap<String, Entry>>() {
+            }.getType());
+            if (saved != null) {
+                this.entries.putAll(saved);
+            }
+        } catch (IOException | JsonParseException e) {
+            HashIndex.LOGGER.warn("Couldn't read hash index " + this.indexFile + ", starting afresh", e);
+        }
+    }
+
+    public synchronized void save() {
+        if (!this.dirty) {
+            return;
+        }
+        this.dirty = false;
+        try {
+            FileUtils.writeStringToFile(this.indexFile, this.gson.toJson(new HashMap<>(this.entries)), UTF_8);
+        } catch (IOException e) {
+            this.dirty = true;
+            HashIndex.LOGGER.warn("Couldn't save hash index " + this.indexFile, e);
+        }
+    }
+
+    public String getDigest(final File file, final String algorithm, final int hashLength) {
+        final String key = getAlgorithmKey(algorithm);
+        if (key == null) {
+            return Downloadable.getDigest(file, algorithm, hashLength);
+        }
+        final String path = file.getAbsolutePath();
+        final Entry stat = Entry.stat(file);
+        if (stat == null) {
+            this.remove(path);
+            return null;
+        }
+        final Entry known = this.entries.get(path);
+        if (known != null && known.matches(stat) && known.isTrusted()) {
+            final String digest = known.get(key);
+            if (digest != null) {
+                return digest;
+            }
+        }
+        final MessageDigest digest = DigestEngine.getInstance(key.equals("md5") ? "MD5" : "SHA-1");
+        try {
+            DigestEngine.update(file, digest);
+        } catch (IOException e) {
+            return null;
+        }
+        if (known != null && known.matches(stat) && known.isTrusted()) {
+            stat.sha1 = known.sha1;
+            stat.md5 = known.md5;
+        }
+        stat.verified = System.currentTimeMillis();
+        stat.set(key, DigestEngine.toHex(digest.digest(), hashLength));
+        this.entries.put(path, stat);
+        this.dirty = true;
+        return stat.get(key);
+    }
+
+    public void record(final File file, final String algorithm, final String digest) {
+        final String key = getAlgorithmKey(algorithm);
+        final Entry stat = Entry.stat(file);
+        if (key == null || stat == null || digest == null) {
+            return;
+        }
+        stat.verified = System.currentTimeMillis();
+        stat.set(key, digest.toLowerCase());
+        this.entries.put(file.getAbsolutePath(), stat);
+        this.dirty = true;
+    }
+
+    public void remove(final String path) {
+        if (this.entries.remove(path) != null) {
+            this.dirty = true;
+        }
+    }
+
+    private static class Entry {
+        private long size;
+        private long modified;
+        private String fileKey;
+        private long verified;
+        private String sha1;
+        private String md5;
+
+        static Entry stat(final File file) {
+            try {
+                final BasicFileAttributes attributes = Files.readAttributes(file.toPath(), BasicFileAttributes.class);
+                if (!attributes.isRegularFile()) {
+                    return null;
+                }
+                final Entry entry = new Entry();
+                entry.size = attributes.size();
+                entry.modified = attributes.lastModifiedTime().toMillis();
+                entry.fileKey = (attributes.fileKey() == null) ? null : attributes.fileKey().toString();
+                return entry;
+            } catch (IOException e) {
+                return null;
+            }
+        }
+
+        boolean matches(final Entry other) {
+            return this.size == other.size && this.modified == other.modified && (this.fileKey == null ? other.fileKey == null : this.fileKey.equals(other.fileKey));
+        }
+
+        boolean isTrusted() {
+            return this.verified - this.modified > RACY_WINDOW;
+        }
+
+        String get(final String key) {
+            return key.equals("md5") ? this.md5 : this.sha1;
+        }
+
+        void set(final String key, final String digest) {
+            if (key.equals("md5")) {
+                this.md5 = digest;
+            } else {
+                this.sha1 = digest;
+            }
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.mojang.launcher.updater.download;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.Proxy;
+import java.net.URL;
+
+public class HttpTransport {
+    private static final Logger LOGGER = LogManager.getLogger();
+    private static final int CONNECT_TIMEOUT = 5000;
+    private static final int READ_TIMEOUT = 30000;
+    private static volatile ConcurrencyController concurrencyController;
+
+    public static void configureKeepAlive(final int maxConnections) {
+        System.setProperty("http.keepAlive", "true");
+        System.setProperty("http.maxConnections", Integer.toString(maxConnections));
+        HttpTransport.LOGGER.debug("Keeping up to " + maxConnections + " idle connections alive per host");
+    }
+
+    public static void configure(final ConcurrencyController controller) {
+        HttpTransport.concurrencyController = controller;
+    }
+
+    public static ConcurrencyController getConcurrencyController() {
+        return HttpTransport.concurrencyController;
+    }
+
+    public static HttpURLConnection openConnection(final URL url, final Proxy proxy) throws IOException {
+        final HttpURLConnection connection = (HttpURLConnection) url.openConnection(proxy);
+        connection.setUseCaches(false);
+        connection.setDefaultUseCaches(false);
+        connection.setRequestProperty("Cache-Control", "no-store,max-age=0,no-cache");
+        connection.setRequestProperty("Expires", "0");
+        connection.setRequestProperty("Pragma", "no-cache");
+        connection.setConnectTimeout(CONNECT_TIMEOUT);
+        connection.setReadTimeout(READ_TIMEOUT);
+        return connection;
+    }
+
+    public static void release(final HttpURLConnection connection) {
+        final ConcurrencyController controller = HttpTransport.concurrencyController;
+        if (controller != null) {
+            try {
+                controller.onResponse(connection.getURL(), connection.getResponseCode());
+            } catch (IOException ignored) {
+            }
+        }
+        InputStream stream = connection.getErrorStream();
+        if (stream == null) {
+            try {
+                stream = connection.getInputStream();
+            } catch (IOException ignored) {
+                return;
+            }
+        }
+        try {
+            final byte[] buffer = new byte[4096];
+            while (stream.read(buffer) >= 0) {
+            }
+        } catch (IOException ex) {
+            HttpTransport.LOGGER.debug("Couldn't drain connection to " + connection.getURL());
+        } finally {
+            Downloadable.closeSilently(stream);
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.mojang.launcher.updater.download;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+public class MirrorList {
+    private static final Logger LOGGER = LogManager.getLogger();
+    private static final long FAILURE_BACKOFF = TimeUnit.MINUTES.toMillis(1L);
+
+    private final List<URL> mirrors;
+    private final Map<URL, Long> failedUntil;
+
+    public MirrorList() {
+        this.mirrors = new CopyOnWriteArrayList<>();
+        this.failedUntil = new ConcurrentHashMap<>();
+    }
+
+    public static URL getObjectUrl(final URL mirror, final String hash) throws MalformedURLException {
+        final String name = hash.toLowerCase();
+        return new URL(mirror, "objects/" + name.substring(0, 2) + "/" + name);
+    }
+
+    public void setMirrors(final Collection<String> mirrors) {
+        final List<URL> urls = new ArrayList<>();
+        for (final String mirror : mirrors) {
+            try {
+                urls.add(new URL(mirror.endsWith("/") ? mirror : (mirror + "/")));
+            } catch (MalformedURLException e) {
+                MirrorList.LOGGER.warn("Ignoring invalid mirror " + mirror);
+            }
+        }
+        this.mirrors.clear();
+        this.mirrors.addAll(urls);
+        this.failedUntil.clear();
+        if (!urls.isEmpty()) {
+            MirrorList.LOGGER.info("Trying mirrors " + urls + " before upstream servers");
+        }
+    }
+
+    public List<URL> getMirrors() {
+        final List<URL> result = new ArrayList<>();
+        final long now = System.currentTimeMillis();
+        for (final URL mirror : this.mirrors) {
+            final Long until = this.failedUntil.get(mirror);
+            if (until == null || until <= now) {
+                result.add(mirror);
+            }
+        }
+        return result;
+    }
+
+    public boolean isEmpty() {
+        return this.mirrors.isEmpty();
+    }
+
+    public void markFailed(final URL mirror) {
+        if (this.failedUntil.put(mirror, System.currentTimeMillis() + FAILURE_BACKOFF) == null) {
+            MirrorList.LOGGER.warn("Mirror " + mirror + " is unreachable, skipping it for a while");
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.mojang.launcher.updater.download;
+
+import com.mojang.launcher.updater.ExceptionalThreadPoolExecutor;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.file.Files;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+public class MirrorServer {
+    private static final Logger LOGGER = LogManager.getLogger();
+    private static final Pattern OBJECT_PATH = Pattern.compile("^/objects/([0-9a-f]{2})/(\\1[0-9a-f]{38})$");
+
+    private final ObjectStore objectStore;
+    private final File assetObjects;
+    private final int port;
+    private HttpServer server;
+    private ThreadPoolExecutor executor;
+
+    public MirrorServer(final ObjectStore objectStore, final File assetObjects, final int port) {
+        this.objectStore = objectStore;
+        this.assetObjects = assetObjects;
+        this.port = port;
+    }
+
+    public synchronized void start() throws IOException {
+        if (this.server != null) {
+            return;
+        }
+        this.executor = new ExceptionalThreadPoolExecutor(4, 4, 30L, TimeUnit.SECONDS);
+        this.executor.allowCoreThreadTimeOut(true);
+        this.server = HttpServer.create(new InetSocketAddress(this.port), 0);
+        this.server.createContext("/objects/", this::handle);
+        this.server.setExecutor(this.executor);
+        this.server.start();
+        MirrorServer.LOGGER.info("Serving object store as a mirror on port " + this.server.getAddress().getPort());
+    }
+
+    public synchronized void stop() {
+        if (this.server != null) {
+            this.server.stop(0);
+            this.executor.shutdown();
+            this.server = null;
+            this.executor = null;
+        }
+    }
+
+    public synchronized int getPort() {
+        return (this.server == null) ? this.port : this.server.getAddress().getPort();
+    }
+
+    private File findObject(final String hash) {
+        if (this.objectStore != null && this.objectStore.contains(hash)) {
+            return this.objectStore.getObject(hash);
+        }
+        final File asset = new File(this.assetObjects, hash.substring(0, 2) + "/" + hash);
+        return asset.isFile() ? asset : null;
+    }
+
+    private void handle(final HttpExchange exchange) throws IOException {
+        try {
+            final String method = exchange.getRequestMethod();
+            if (!method.equals("GET") && !method.equals("HEAD")) {
+                exchange.sendResponseHeaders(405, -1L);
+                return;
+            }
+            final Matcher matcher = OBJECT_PATH.matcher(exchange.getRequestURI().getPath());
+            final File object = matcher.matches() ? this.findObject(matcher.group(2)) : null;
+            if (object == null) {
+                exchange.sendResponseHeaders(404, -1L);
+                return;
+            }
+            final long length = object.length();
+            exchange.getResponseHeaders().set("Content-Type", "application/octet-stream");
+            if (method.equals("HEAD")) {
+                exchange.getResponseHeaders().set("Content-Length", Long.toString(length));
+                exchange.sendResponseHeaders(200, -1L);
+                return;
+            }
+            exchange.sendResponseHeaders(200, (length == 0L) ? -1L : length);
+            try (final OutputStream outputStream = exchange.getResponseBody()) {
+                Files.copy(object.toPath(), outputStream);
+            }
+        } catch (IOException e) {
+            MirrorServer.LOGGER.debug("Couldn't serve " + exchange.getRequestURI() + " to " + exchange.getRemoteAddress(), e);
+        } finally {
+            exchange.close();
+        }
+    }
+}
@@ -16,7 +16,7 @@ public class MonitoringInputStream extends FilterInputStream {
     public int read() throws IOException {
         final int result = this.in.read();
         if (result >= 0) {
-            this.monitor.addProgress(1L);
+            this.consumed(1L);
         }
         return result;
     }
@@ -25,7 +25,7 @@ public class MonitoringInputStream extends FilterInputStream {
     public int read(final byte[] buffer) throws IOException {
         final int size = this.in.read(buffer);
         if (size >= 0) {
-            this.monitor.addProgress(size);
+            this.consumed(size);
         }
         return size;
     }
@@ -34,7 +34,7 @@ public class MonitoringInputStream extends FilterInputStream {
     public int read(final byte[] buffer, final int off, final int len) throws IOException {
         final int size = this.in.read(buffer, off, len);
         if (size > 0) {
-            this.monitor.addProgress(size);
+            this.consumed(size);
         }
         return size;
     }
@@ -43,8 +43,16 @@ public class MonitoringInputStream extends FilterInputStream {
     public long skip(final long size) throws IOException {
         final long skipped = super.skip(size);
         if (skipped > 0L) {
-            this.monitor.addProgress(skipped);
+            this.consumed(skipped);
         }
         return skipped;
     }
+
+    private void consumed(final long bytes) throws IOException {
+        this.monitor.addProgress(bytes);
+        final DownloadJob job = this.monitor.getJob();
+        if (job != null) {
+            job.consumeBandwidth(bytes);
+        }
+    }
 }
@@ -0,0 +1,111 @@
+package com.mojang.launcher.updater.download;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+public class ObjectStore {
+    private static final Logger LOGGER = LogManager.getLogger();
+
+    private final File directory;
+
+    public ObjectStore(final File directory) {
+        this.directory = directory;
+    }
+
+    public static void materialize(final File source, final File target) throws IOException {
+        final File parent = target.getParentFile();
+        if (parent != null && !parent.isDirectory() && !parent.mkdirs() && !parent.isDirectory()) {
+            throw new IOException("Could not create directory " + parent);
+        }
+        Files.deleteIfExists(target.toPath());
+        try {
+            Files.createLink(target.toPath(), source.toPath());
+            return;
+        } catch (IOException | UnsupportedOperationException e) {
+            ObjectStore.LOGGER.debug("Couldn't link " + target + " to " + source + ", copying instead");
+        }
+        final File temporary = new File(target.getPath() + ".tmp");
+        try (final FileChannel input = FileChannel.open(source.toPath(), StandardOpenOption.READ);
+             final FileChannel output = FileChannel.open(temporary.toPath(), StandardOpenOption.WRITE, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            final long size = input.size();
+            long position = 0L;
+            while (position < size) {
+                position += input.transferTo(position, size - position, output);
+            }
+        }
+        Files.move(temporary.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    public File getDirectory() {
+        return this.directory;
+    }
+
+    public File getObject(final String hash) {
+        final String name = hash.toLowerCase();
+        return new File(this.directory, name.substring(0, 2) + "/" + name);
+    }
+
+    public boolean contains(final String hash) {
+        return hash != null && hash.length() > 2 && this.getObject(hash).isFile();
+    }
+
+    public boolean materialize(final String hash, final File target, final HashIndex hashIndex) {
+        if (!this.contains(hash)) {
+            return false;
+        }
+        final File object = this.getObject(hash);
+        final String digest;
+        try {
+            digest = (hashIndex != null) ? hashIndex.getDigest(object, "SHA-1", 40) : DigestEngine.digest(object, "SHA-1");
+        } catch (IOException e) {
+            ObjectStore.LOGGER.warn("Couldn't hash object " + hash, e);
+            return false;
+        }
+        if (digest == null) {
+            return false;
+        }
+        if (!hash.equalsIgnoreCase(digest)) {
+            ObjectStore.LOGGER.warn("Object " + hash + " was modified (hashed to " + digest + "), removing it from the object store");
+            if (hashIndex != null) {
+                hashIndex.remove(object.getAbsolutePath());
+            }
+            try {
+                Files.deleteIfExists(object.toPath());
+            } catch (IOException e) {
+                ObjectStore.LOGGER.warn("Couldn't remove modified object " + object, e);
+            }
+            return false;
+        }
+        try {
+            materialize(object, target);
+            return true;
+        } catch (IOException e) {
+            ObjectStore.LOGGER.warn("Couldn't materialize object " + hash + " into " + target, e);
+            return false;
+        }
+    }
+
+    public void ingest(final String hash, final File source) {
+        if (hash == null || hash.length() <= 2 || this.contains(hash) || !source.isFile()) {
+            return;
+        }
+        final File object = this.getObject(hash);
+        final File parent = object.getParentFile();
+        if (!parent.isDirectory() && !parent.mkdirs() && !parent.isDirectory()) {
+            ObjectStore.LOGGER.warn("Could not create directory " + parent);
+            return;
+        }
+        try {
+            Files.createLink(object.toPath(), source.toPath());
+        } catch (IOException | UnsupportedOperationException e) {
+            ObjectStore.LOGGER.debug("Couldn't link " + source + " into object store", e);
+        }
+    }
+}
@@ -0,0 +1,205 @@
+package com.mojang.launcher.updater.download;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import org.apache.commons.io.FileUtils;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.*;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+public class PartialDownload {
+    private static final Logger LOGGER = LogManager.getLogger();
+    private static final Gson GSON = new Gson();
+    private static final long JOURNAL_INTERVAL = 1048576L;
+    private static final int HTTP_RANGE_NOT_SATISFIABLE = 416;
+
+    private final URL url;
+    private final String resumeKey;
+    private final boolean useValidator;
+    private final File target;
+    private final File partFile;
+    private final File journalFile;
+    private String validator;
+    private long offset;
+
+    public PartialDownload(final File target, final URL url) {
+        this(target, url, new File(target.getPath() + ".part"), url.toString(), true);
+    }
+
+    private PartialDownload(final File target, final URL url, final File partFile, final String resumeKey, final boolean useValidator) {
+        this.url = url;
+        this.resumeKey = resumeKey;
+        this.useValidator = useValidator;
+        this.target = target;
+        this.partFile = partFile;
+        this.journalFile = new File(partFile.getPath() + ".journal");
+        this.readJournal();
+    }
+
+    public static PartialDownload forObject(final File target, final URL url, final String hash) {
+        return new PartialDownload(target, url, getObjectPartFile(target, hash), hash.toLowerCase(), false);
+    }
+
+    public static void discardObject(final File target, final String hash) {
+        final File partFile = getObjectPartFile(target, hash);
+        FileUtils.deleteQuietly(partFile);
+        FileUtils.deleteQuietly(new File(partFile.getPath() + ".journal"));
+    }
+
+    private static File getObjectPartFile(final File target, final String hash) {
+        return new File(target.getPath() + "." + hash.toLowerCase() + ".mirror.part");
+    }
+
+    private void readJournal() {
+        if (!this.partFile.isFile() || !this.journalFile.isFile()) {
+            return;
+        }
+        Journal journal;
+        try {
+            journal = PartialDownload.GSON.fromJson(FileUtils.readFileToString(this.journalFile, UTF_8), Journal.class);
+        } catch (IOException | JsonParseException e) {
+            journal = null;
+        }
+        if (journal == null || !this.resumeKey.equals(journal.url) || journal.offset <= 0L || journal.offset > this.partFile.length()) {
+            PartialDownload.LOGGER.debug("Discarding unusable partial download of " + this.target);
+            this.discard();
+            return;
+        }
+        this.offset = journal.offset;
+        this.validator = journal.validator;
+    }
+
+    private void writeJournal(final long offset) {
+        final Journal journal = new Journal();
+        journal.url = this.resumeKey;
+        journal.offset = offset;
+        journal.validator = this.validator;
+        try {
+            FileUtils.writeStringToFile(this.journalFile, PartialDownload.GSON.toJson(journal), UTF_8);
+        } catch (IOException e) {
+            PartialDownload.LOGGER.debug("Couldn't write download journal " + this.journalFile);
+        }
+    }
+
+    public void prepare(final HttpURLConnection connection) {
+        if (this.offset > 0L) {
+            connection.setRequestProperty("Range", "bytes=" + this.offset + "-");
+            if (this.useValidator && this.validator != null) {
+                connection.setRequestProperty("If-Range", this.validator);
+            }
+        }
+    }
+
+    public boolean accepts(final int status) {
+        if (status == HttpURLConnection.HTTP_OK || status == HttpURLConnection.HTTP_PARTIAL) {
+            return true;
+        }
+        if (status == HTTP_RANGE_NOT_SATISFIABLE) {
+            this.discard();
+        }
+        return false;
+    }
+
+    public long begin(final HttpURLConnection connection) throws IOException {
+        if (this.offset > 0L && (connection.getResponseCode() != HttpURLConnection.HTTP_PARTIAL || getRangeStart(connection) != this.offset)) {
+            PartialDownload.LOGGER.info("Server refused to resume " + this.target + "; starting again");
+            this.offset = 0L;
+        } else if (this.offset > 0L) {
+            PartialDownload.LOGGER.info("Resuming " + this.target + " from byte " + this.offset);
+        }
+        final String etag = connection.getHeaderField("ETag");
+        this.validator = (etag != null && !etag.startsWith("W/")) ? etag : connection.getHeaderField("Last-Modified");
+        return this.offset;
+    }
+
+    private static long getRangeStart(final HttpURLConnection connection) {
+        final String range = connection.getHeaderField("Content-Range");
+        if (range == null || !range.startsWith("bytes ")) {
+            return -1L;
+        }
+        final int dash = range.indexOf('-');
+        try {
+            return (dash < 0) ? -1L : Long.parseLong(range.substring(6, dash).trim());
+        } catch (NumberFormatException e) {
+            return -1L;
+        }
+    }
+
+    public String transfer(final InputStream inputStream, final long contentLength, final String algorithm, final int hashLength) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = DigestEngine.getInstance(algorithm);
+        } catch (RuntimeException e) {
+            Downloadable.closeSilently(inputStream);
+            throw e;
+        }
+        final byte[] buffer = new byte[65536];
+        if (this.offset > 0L) {
+            try (final FileChannel channel = new RandomAccessFile(this.partFile, "rw").getChannel()) {
+                channel.truncate(this.offset);
+            }
+            try (final InputStream existing = new FileInputStream(this.partFile)) {
+                for (int read = existing.read(buffer); read >= 1; read = existing.read(buffer)) {
+                    digest.update(buffer, 0, read);
+                }
+            }
+        }
+        long written = this.offset;
+        long journaled = written;
+        final OutputStream outputStream = new FileOutputStream(this.partFile, this.offset > 0L);
+        try {
+            for (int read = inputStream.read(buffer); read >= 1; read = inputStream.read(buffer)) {
+                digest.update(buffer, 0, read);
+                outputStream.write(buffer, 0, read);
+                written += read;
+                if (written - journaled >= JOURNAL_INTERVAL) {
+                    this.writeJournal(written);
+                    journaled = written;
+                }
+            }
+            if (contentLength >= 0L && written - this.offset < contentLength) {
+                throw new EOFException("Connection closed after " + (written - this.offset) + " of " + contentLength + " bytes");
+            }
+            journaled = -1L;
+        } finally {
+            Downloadable.closeSilently(inputStream);
+            Downloadable.closeSilently(outputStream);
+            if (journaled >= 0L && written > 0L) {
+                this.writeJournal(written);
+            }
+        }
+        return DigestEngine.toHex(digest.digest(), hashLength);
+    }
+
+    public void commit() throws IOException {
+        try {
+            Files.move(this.partFile.toPath(), this.target.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(this.partFile.toPath(), this.target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+        FileUtils.deleteQuietly(this.journalFile);
+        this.offset = 0L;
+    }
+
+    public void discard() {
+        FileUtils.deleteQuietly(this.partFile);
+        FileUtils.deleteQuietly(this.journalFile);
+        this.offset = 0L;
+    }
+
+    private static class Journal {
+        private String url;
+        private long offset;
+        private String validator;
+    }
+}
@@ -1,18 +1,22 @@
 package com.mojang.launcher.updater.download;
 
 public class ProgressContainer {
-    private long total;
-    private long current;
-    private DownloadJob job;
+    private volatile long total;
+    private volatile long current;
+    private volatile DownloadJob job;
 
     public DownloadJob getJob() {
         return this.job;
     }
 
     public void setJob(final DownloadJob job) {
+        final DownloadJob previous = this.job;
+        if (previous != null) {
+            previous.addProgress(-this.current, -this.total);
+        }
         this.job = job;
         if (job != null) {
-            job.updateProgress();
+            job.addProgress(this.current, this.total);
         }
     }
 
@@ -21,10 +25,9 @@ public class ProgressContainer {
     }
 
     public void setTotal(final long total) {
+        final long delta = total - this.total;
         this.total = total;
-        if (this.job != null) {
-            this.job.updateProgress();
-        }
+        this.publish(0L, delta);
     }
 
     public long getCurrent() {
@@ -32,24 +35,32 @@ public class ProgressContainer {
     }
 
     public void setCurrent(final long current) {
+        final long delta = current - this.current;
         this.current = current;
+        long totalDelta = 0L;
         if (current > this.total) {
+            totalDelta = current - this.total;
             this.total = current;
         }
-        if (this.job != null) {
-            this.job.updateProgress();
-        }
+        this.publish(delta, totalDelta);
     }
 
     public void addProgress(final long amount) {
-        this.setCurrent(this.getCurrent() + amount);
+        this.setCurrent(this.current + amount);
+    }
+
+    private void publish(final long currentDelta, final long totalDelta) {
+        final DownloadJob job = this.job;
+        if (job != null && (currentDelta != 0L || totalDelta != 0L)) {
+            job.addProgress(currentDelta, totalDelta);
+        }
     }
 
     public float getProgress() {
         if (this.total == 0L) {
             return 0.0f;
         }
-        return this.current / this.total;
+        return (float) this.current / this.total;
     }
 
     @Override
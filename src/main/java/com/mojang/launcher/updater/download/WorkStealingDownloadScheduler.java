@@ -0,0 +1,180 @@
+package com.mojang.launcher.updater.download;
+
+import java.net.URL;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.TimeUnit;
+
+public class WorkStealingDownloadScheduler implements DownloadScheduler {
+    private static final long SMALL_FILE_THRESHOLD = 262144L;
+    private static final int SMALL_FILE_BATCH = 32;
+    private static final long RETRY_BASE_DELAY = 500L;
+    private static final long RETRY_MAX_DELAY = 8000L;
+    private static final long PARK_TIMEOUT = 250L;
+
+    private final DelayQueue<DelayedRetry> retries;
+    private final ConcurrentMap<String, Deque<Downloadable>> parked;
+    private List<Deque<Downloadable>> deques;
+
+    public WorkStealingDownloadScheduler() {
+        this.retries = new DelayQueue<>();
+        this.parked = new ConcurrentHashMap<>();
+        this.deques = Collections.emptyList();
+    }
+
+    private static long getScheduledSize(final Downloadable downloadable) {
+        final long size = downloadable.getExpectedSize();
+        return (size > 0L) ? size : DownloadJob.ASSUMED_AVERAGE_FILE_SIZE;
+    }
+
+    private static String getHost(final URL url) {
+        return (url == null || url.getHost() == null) ? "" : url.getHost().toLowerCase();
+    }
+
+    @Override
+    public void schedule(final Collection<Downloadable> downloadables, final int workers) {
+        final List<Deque<Downloadable>> deques = new ArrayList<>(workers);
+        for (int i = 0; i < workers; ++i) {
+            deques.add(new ConcurrentLinkedDeque<>());
+        }
+        final List<Downloadable> sorted = new ArrayList<>(downloadables);
+        sorted.sort(Comparator.comparingLong(WorkStealingDownloadScheduler::getScheduledSize).reversed());
+        int worker = 0;
+        int batch = 0;
+        for (final Downloadable downloadable : sorted) {
+            deques.get(worker).addLast(downloadable);
+            if (getScheduledSize(downloadable) >= SMALL_FILE_THRESHOLD || ++batch >= SMALL_FILE_BATCH) {
+                batch = 0;
+                worker = (worker + 1) % workers;
+            }
+        }
+        this.deques = deques;
+    }
+
+    @Override
+    public Downloadable next(final int worker) throws InterruptedException {
+        while (true) {
+            DelayedRetry retry = this.retries.poll();
+            if (retry != null) {
+                return retry.downloadable;
+            }
+            final Downloadable own = this.deques.get(worker).pollFirst();
+            if (own != null) {
+                return own;
+            }
+            final Downloadable stolen = this.steal(worker);
+            if (stolen != null) {
+                return stolen;
+            }
+            if (this.retries.isEmpty() && !this.unparkOnePerHost()) {
+                return null;
+            }
+            retry = this.retries.poll(RETRY_MAX_DELAY, TimeUnit.MILLISECONDS);
+            if (retry != null) {
+                return retry.downloadable;
+            }
+        }
+    }
+
+    private Downloadable steal(final int worker) {
+        final int workers = this.deques.size();
+        for (int i = 1; i < workers; ++i) {
+            final Deque<Downloadable> victim = this.deques.get((worker + i) % workers);
+            final Downloadable stolen = victim.pollLast();
+            if (stolen == null) {
+                continue;
+            }
+            if (getScheduledSize(stolen) < SMALL_FILE_THRESHOLD) {
+                final Deque<Downloadable> own = this.deques.get(worker);
+                for (int j = 1; j < SMALL_FILE_BATCH / 2; ++j) {
+                    final Downloadable extra = victim.pollLast();
+                    if (extra == null) {
+                        break;
+                    }
+                    if (getScheduledSize(extra) >= SMALL_FILE_THRESHOLD) {
+                        victim.addLast(extra);
+                        break;
+                    }
+                    own.addLast(extra);
+                }
+            }
+            return stolen;
+        }
+        return null;
+    }
+
+    @Override
+    public void retry(final Downloadable downloadable) {
+        final int attempts = Math.max(1, downloadable.getNumAttempts());
+        final long delay = Math.min(RETRY_MAX_DELAY, RETRY_BASE_DELAY << Math.min(attempts - 1, 16));
+        this.retries.add(new DelayedRetry(downloadable, delay));
+    }
+
+    private boolean unparkOnePerHost() {
+        boolean unparked = false;
+        for (final Deque<Downloadable> hostQueue : this.parked.values()) {
+            final Downloadable downloadable = hostQueue.pollFirst();
+            if (downloadable != null) {
+                this.retries.add(new DelayedRetry(downloadable, PARK_TIMEOUT));
+                unparked = true;
+            }
+        }
+        return unparked;
+    }
+
+    @Override
+    public void defer(final Downloadable downloadable) {
+        this.parked.computeIfAbsent(getHost(downloadable.getRequestUrl()), host -> new ConcurrentLinkedDeque<>()).addLast(downloadable);
+    }
+
+    @Override
+    public void wake(final URL url) {
+        final Deque<Downloadable> hostQueue = this.parked.get(getHost(url));
+        final Downloadable downloadable = (hostQueue == null) ? null : hostQueue.pollFirst();
+        if (downloadable != null) {
+            this.retries.add(new DelayedRetry(downloadable, 0L));
+        }
+    }
+
+    @Override
+    public boolean isEmpty() {
+        if (!this.retries.isEmpty()) {
+            return false;
+        }
+        for (final Deque<Downloadable> hostQueue : this.parked.values()) {
+            if (!hostQueue.isEmpty()) {
+                return false;
+            }
+        }
+        for (final Deque<Downloadable> deque : this.deques) {
+            if (!deque.isEmpty()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static class DelayedRetry implements Delayed {
+        private final Downloadable downloadable;
+        private final long readyAt;
+
+        DelayedRetry(final Downloadable downloadable, final long delay) {
+            this.downloadable = downloadable;
+            this.readyAt = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(delay);
+        }
+
+        @Override
+        public long getDelay(final TimeUnit unit) {
+            return unit.convert(this.readyAt - System.nanoTime(), TimeUnit.NANOSECONDS);
+        }
+
+        @Override
+        public int compareTo(final Delayed o) {
+            return Long.compare(this.getDelay(TimeUnit.NANOSECONDS), o.getDelay(TimeUnit.NANOSECONDS));
+        }
+    }
+}
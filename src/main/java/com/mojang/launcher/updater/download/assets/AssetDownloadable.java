@@ -1,8 +1,12 @@
 package com.mojang.launcher.updater.download.assets;
 
+import com.mojang.launcher.updater.download.DigestEngine;
 import com.mojang.launcher.updater.download.Downloadable;
 import com.mojang.launcher.updater.download.MonitoringInputStream;
+import com.mojang.launcher.updater.download.PartialDownload;
 import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.input.TeeInputStream;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
@@ -11,6 +15,10 @@ import java.net.HttpURLConnection;
 import java.net.MalformedURLException;
 import java.net.Proxy;
 import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
 import java.util.zip.GZIPInputStream;
 
 public class AssetDownloadable extends Downloadable {
@@ -21,6 +29,10 @@ public class AssetDownloadable extends Downloadable {
     private final String urlBase;
     private final File destination;
     private Status status;
+    private ObjectDirectorySnapshot snapshot;
+    private boolean keepCompressed;
+    private AssetReferenceTable references;
+    private String indexId;
 
     public AssetDownloadable(final Proxy proxy, final String name, final AssetIndex.AssetObject asset, final String urlBase, final File destination) throws MalformedURLException {
         super(proxy, new URL(urlBase + createPathFromHash(asset.getHash())), new File(destination, createPathFromHash(asset.getHash())), false);
@@ -35,8 +47,36 @@ public class AssetDownloadable extends Downloadable {
         return hash.substring(0, 2) + "/" + hash;
     }
 
+    @Override
+    public URL getRequestUrl() {
+        final URL mirror = this.getMirrorUrl(this.asset.getHash());
+        if (mirror != null) {
+            return mirror;
+        }
+        if (this.asset.hasCompressedAlternative()) {
+            try {
+                return new URL(this.urlBase + createPathFromHash(this.asset.getCompressedHash()));
+            } catch (MalformedURLException e) {
+                AssetDownloadable.LOGGER.debug("Couldn't build compressed URL for " + this.name, e);
+            }
+        }
+        return super.getRequestUrl();
+    }
+
     @Override
     public String download() throws IOException {
+        try {
+            return this.fetch();
+        } catch (IOException | RuntimeException e) {
+            if (this.references != null) {
+                this.references.clearSynced(this.indexId);
+                this.references.save();
+            }
+            throw e;
+        }
+    }
+
+    private String fetch() throws IOException {
         this.status = Status.DOWNLOADING;
         ++this.numAttempts;
         final File localAsset = this.getTarget();
@@ -47,16 +87,19 @@ public class AssetDownloadable extends Downloadable {
         if (localCompressed != null) {
             this.ensureFileWritable(localCompressed);
         }
-        if (localAsset.isFile()) {
-            if (FileUtils.sizeOf(localAsset) == this.asset.getSize()) {
+        final ObjectDirectorySnapshot snapshot = (this.numAttempts == 1) ? this.snapshot : null;
+        final long localSize = (snapshot != null) ? snapshot.getSize(this.asset.getHash()) : (localAsset.isFile() ? FileUtils.sizeOf(localAsset) : -1L);
+        if (localSize >= 0L) {
+            if (localSize == this.asset.getSize()) {
                 return "Have local file and it's the same size; assuming it's okay!";
             }
-            AssetDownloadable.LOGGER.warn("Had local file but it was the wrong size... had {} but expected {}", FileUtils.sizeOf(localAsset), this.asset.getSize());
+            AssetDownloadable.LOGGER.warn("Had local file but it was the wrong size... had {} but expected {}", localSize, this.asset.getSize());
             FileUtils.deleteQuietly(localAsset);
             this.status = Status.DOWNLOADING;
         }
-        if (localCompressed != null && localCompressed.isFile()) {
-            final String localCompressedHash = Downloadable.getDigest(localCompressed, "SHA", 40);
+        final boolean haveCompressed = localCompressed != null && ((snapshot != null) ? snapshot.getSize(this.asset.getCompressedHash()) >= 0L : localCompressed.isFile());
+        if (haveCompressed) {
+            final String localCompressedHash = this.getLocalDigest(localCompressed, "SHA", 40);
             if (localCompressedHash != null) {
                 if (localCompressedHash.equalsIgnoreCase(this.asset.getCompressedHash())) {
                     return this.decompressAsset(localAsset, localCompressed);
@@ -65,39 +108,96 @@ public class AssetDownloadable extends Downloadable {
             AssetDownloadable.LOGGER.warn("Had local compressed but it was the wrong hash... expected {} but had {}", this.asset.getCompressedHash(), localCompressedHash);
             FileUtils.deleteQuietly(localCompressed);
         }
+        if (this.fetchFromMirror(this.asset.getHash(), localAsset)) {
+            return "Downloaded asset from mirror and hash matched";
+        }
         if (remoteCompressed != null && localCompressed != null) {
-            final HttpURLConnection connection = this.makeConnection(remoteCompressed);
-            final int status = connection.getResponseCode();
-            if (status != 200) {
-                throw new RuntimeException("Server responded with " + status);
-            }
-            this.updateExpectedSize(connection);
-            final InputStream inputStream = new MonitoringInputStream(connection.getInputStream(), this.getMonitor());
-            final FileOutputStream outputStream = new FileOutputStream(localCompressed);
-            final String hash = Downloadable.copyAndDigest(inputStream, outputStream, "SHA", 40);
-            if (hash.equalsIgnoreCase(this.asset.getCompressedHash())) {
-                return this.decompressAsset(localAsset, localCompressed);
-            }
-            FileUtils.deleteQuietly(localCompressed);
-            throw new RuntimeException(String.format("Hash did not match downloaded compressed asset (Expected %s, downloaded %s)", this.asset.getCompressedHash(), hash));
+            return this.downloadCompressed(localAsset, localCompressed, remoteCompressed);
         } else {
+            final PartialDownload partial = new PartialDownload(localAsset, remoteAsset);
             final HttpURLConnection connection = this.makeConnection(remoteAsset);
+            partial.prepare(connection);
             final int status = connection.getResponseCode();
-            if (status != 200) {
+            if (!partial.accepts(status)) {
+                this.releaseConnection(connection);
                 throw new RuntimeException("Server responded with " + status);
             }
-            this.updateExpectedSize(connection);
-            final InputStream inputStream = new MonitoringInputStream(connection.getInputStream(), this.getMonitor());
-            final FileOutputStream outputStream = new FileOutputStream(localAsset);
-            final String hash = Downloadable.copyAndDigest(inputStream, outputStream, "SHA", 40);
+            final String hash = this.copyToPartial(connection, partial, "SHA", 40);
             if (hash.equalsIgnoreCase(this.asset.getHash())) {
+                partial.commit();
                 return "Downloaded asset and hash matched successfully";
             }
-            FileUtils.deleteQuietly(localAsset);
+            partial.discard();
             throw new RuntimeException(String.format("Hash did not match downloaded asset (Expected %s, downloaded %s)", this.asset.getHash(), hash));
         }
     }
 
+    private String downloadCompressed(final File localAsset, final File localCompressed, final URL remoteCompressed) throws IOException {
+        final HttpURLConnection connection = this.makeConnection(remoteCompressed);
+        final int status = connection.getResponseCode();
+        if (status / 100 != 2) {
+            this.releaseConnection(connection);
+            throw new RuntimeException("Server responded with " + status);
+        }
+        if (this.asset.getCompressedSize() > 0L) {
+            this.getMonitor().setTotal(this.asset.getCompressedSize());
+        } else {
+            this.updateExpectedSize(connection);
+        }
+        final MessageDigest compressedDigest = DigestEngine.getInstance("SHA");
+        final MessageDigest digest = DigestEngine.getInstance("SHA");
+        final File temporaryAsset = new File(localAsset.getPath() + ".tmp");
+        final File temporaryCompressed = this.keepCompressed ? new File(localCompressed.getPath() + ".tmp") : null;
+        final InputStream compressedStream = new DigestInputStream(new MonitoringInputStream(connection.getInputStream(), this.getMonitor()), compressedDigest);
+        final byte[] buffer = new byte[65536];
+        try {
+            final InputStream inputStream = new GZIPInputStream((temporaryCompressed == null) ? compressedStream : new TeeInputStream(compressedStream, new FileOutputStream(temporaryCompressed), true));
+            try (final OutputStream outputStream = new FileOutputStream(temporaryAsset)) {
+                for (int read = inputStream.read(buffer); read >= 1; read = inputStream.read(buffer)) {
+                    digest.update(buffer, 0, read);
+                    outputStream.write(buffer, 0, read);
+                }
+                IOUtils.skip(compressedStream, Long.MAX_VALUE);
+            } finally {
+                Downloadable.closeSilently(inputStream);
+            }
+            final String compressedHash = DigestEngine.toHex(compressedDigest.digest());
+            if (!compressedHash.equalsIgnoreCase(this.asset.getCompressedHash())) {
+                throw new RuntimeException(String.format("Hash did not match downloaded compressed asset (Expected %s, downloaded %s)", this.asset.getCompressedHash(), compressedHash));
+            }
+            final String hash = DigestEngine.toHex(digest.digest());
+            if (!hash.equalsIgnoreCase(this.asset.getHash())) {
+                throw new RuntimeException("Downloaded compressed asset but unpacked hash did not match (expected " + this.asset.getHash() + " but had " + hash + ")");
+            }
+            Files.move(temporaryAsset.toPath(), localAsset.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            this.recordDigest(localAsset, "SHA", hash);
+            if (temporaryCompressed != null) {
+                Files.move(temporaryCompressed.toPath(), localCompressed.toPath(), StandardCopyOption.REPLACE_EXISTING);
+                this.recordDigest(localCompressed, "SHA", compressedHash);
+            }
+            return "Downloaded compressed asset, unpacked it and both hashes matched";
+        } finally {
+            Downloadable.closeSilently(compressedStream);
+            FileUtils.deleteQuietly(temporaryAsset);
+            if (temporaryCompressed != null) {
+                FileUtils.deleteQuietly(temporaryCompressed);
+            }
+        }
+    }
+
+    public void setKeepCompressed(final boolean keepCompressed) {
+        this.keepCompressed = keepCompressed;
+    }
+
+    public void setSnapshot(final ObjectDirectorySnapshot snapshot) {
+        this.snapshot = snapshot;
+    }
+
+    public void setReferences(final AssetReferenceTable references, final String indexId) {
+        this.references = references;
+        this.indexId = indexId;
+    }
+
     @Override
     public String getStatus() {
         return this.status.name + " " + this.name;
@@ -29,13 +29,24 @@ public class AssetIndex {
         return this.virtual;
     }
 
-    public class AssetObject {
+    public static class AssetObject {
         private String hash;
         private long size;
         private boolean reconstruct;
         private String compressedHash;
         private long compressedSize;
 
+        public AssetObject() {
+        }
+
+        AssetObject(final String hash, final long size, final boolean reconstruct, final String compressedHash, final long compressedSize) {
+            this.hash = hash;
+            this.size = size;
+            this.reconstruct = reconstruct;
+            this.compressedHash = compressedHash;
+            this.compressedSize = compressedSize;
+        }
+
         public String getHash() {
             return this.hash;
         }
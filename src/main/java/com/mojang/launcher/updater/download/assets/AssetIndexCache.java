@@ -0,0 +1,116 @@
+package com.mojang.launcher.updater.download.assets;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+public class AssetIndexCache {
+    private static final Logger LOGGER = LogManager.getLogger();
+
+    private final Map<String, CachedIndex> entries;
+
+    public AssetIndexCache(final int maxEntries) {
+        this.entries = new LinkedHashMap<String, CachedIndex>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<String, CachedIndex> eldest) {
+                return this.size() > maxEntries;
+            }
+        };
+    }
+
+    public CompactAssetIndex get(final File indexFile) throws IOException {
+        final String key = indexFile.getAbsolutePath();
+        final Fingerprint fingerprint = Fingerprint.of(indexFile);
+        synchronized (this) {
+            final CachedIndex entry = this.entries.get(key);
+            if (entry != null && entry.fingerprint.equals(fingerprint)) {
+                return entry.index;
+            }
+            if (entry != null) {
+                AssetIndexCache.LOGGER.debug("Asset index " + indexFile + " changed on disk, parsing it again");
+                this.entries.remove(key);
+            }
+        }
+        final CompactAssetIndex index = CompactAssetIndex.read(indexFile);
+        synchronized (this) {
+            this.entries.put(key, new CachedIndex(fingerprint, index));
+        }
+        return index;
+    }
+
+    public void put(final File indexFile, final CompactAssetIndex index) {
+        try {
+            final Fingerprint fingerprint = Fingerprint.of(indexFile);
+            synchronized (this) {
+                this.entries.put(indexFile.getAbsolutePath(), new CachedIndex(fingerprint, index));
+            }
+        } catch (IOException e) {
+            this.invalidate(indexFile);
+        }
+    }
+
+    public synchronized void invalidate(final File indexFile) {
+        this.entries.remove(indexFile.getAbsolutePath());
+    }
+
+    public synchronized void clear() {
+        this.entries.clear();
+    }
+
+    private static class CachedIndex {
+        private final Fingerprint fingerprint;
+        private final CompactAssetIndex index;
+
+        CachedIndex(final Fingerprint fingerprint, final CompactAssetIndex index) {
+            this.fingerprint = fingerprint;
+            this.index = index;
+        }
+    }
+
+    private static class Fingerprint {
+        private final long size;
+        private final long modified;
+        private final Object fileKey;
+
+        private Fingerprint(final long size, final long modified, final Object fileKey) {
+            this.size = size;
+            this.modified = modified;
+            this.fileKey = fileKey;
+        }
+
+        static Fingerprint of(final File file) throws IOException {
+            try {
+                final BasicFileAttributes attributes = Files.readAttributes(file.toPath(), BasicFileAttributes.class);
+                return new Fingerprint(attributes.size(), attributes.lastModifiedTime().toMillis(), attributes.fileKey());
+            } catch (NoSuchFileException e) {
+                throw new FileNotFoundException(file.toString());
+            }
+        }
+
+        @Override
+        public boolean equals(final Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || this.getClass() != o.getClass()) {
+                return false;
+            }
+            final Fingerprint that = (Fingerprint) o;
+            return this.size == that.size && this.modified == that.modified && Objects.equals(this.fileKey, that.fileKey);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(this.size, this.modified, this.fileKey);
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.mojang.launcher.updater.download.assets;
+
+import com.google.gson.JsonParseException;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+import java.io.*;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+public class AssetIndexReader {
+    public static boolean read(final InputStream inputStream, final Listener listener) throws IOException {
+        final JsonReader reader = new JsonReader(new BufferedReader(new InputStreamReader(inputStream, UTF_8)));
+        boolean virtual = false;
+        try {
+            reader.beginObject();
+            while (reader.hasNext()) {
+                final String key = reader.nextName();
+                if (key.equals("objects") && reader.peek() == JsonToken.BEGIN_OBJECT) {
+                    reader.beginObject();
+                    while (reader.hasNext()) {
+                        final String name = reader.nextName();
+                        final AssetIndex.AssetObject object = readObject(reader);
+                        if (object != null) {
+                            listener.onAsset(name, object);
+                        }
+                    }
+                    reader.endObject();
+                } else if (key.equals("virtual") && reader.peek() == JsonToken.BOOLEAN) {
+                    virtual = reader.nextBoolean();
+                } else {
+                    reader.skipValue();
+                }
+            }
+            reader.endObject();
+        } catch (IllegalStateException | NumberFormatException e) {
+            throw new JsonParseException("Malformed asset index", e);
+        }
+        return virtual;
+    }
+
+    public static boolean read(final File file, final Listener listener) throws IOException {
+        try (final InputStream inputStream = new FileInputStream(file)) {
+            return read(inputStream, listener);
+        }
+    }
+
+    private static AssetIndex.AssetObject readObject(final JsonReader reader) throws IOException {
+        if (reader.peek() != JsonToken.BEGIN_OBJECT) {
+            reader.skipValue();
+            return null;
+        }
+        String hash = null;
+        long size = 0L;
+        boolean reconstruct = false;
+        String compressedHash = null;
+        long compressedSize = 0L;
+        reader.beginObject();
+        while (reader.hasNext()) {
+            final String key = reader.nextName();
+            if (reader.peek() == JsonToken.NULL) {
+                reader.nextNull();
+                continue;
+            }
+            switch (key) {
+                case "hash":
+                    hash = reader.nextString();
+                    break;
+                case "size":
+                    size = reader.nextLong();
+                    break;
+                case "reconstruct":
+                    reconstruct = reader.nextBoolean();
+                    break;
+                case "compressedHash":
+                    compressedHash = reader.nextString();
+                    break;
+                case "compressedSize":
+                    compressedSize = reader.nextLong();
+                    break;
+                default:
+                    reader.skipValue();
+            }
+        }
+        reader.endObject();
+        return (hash == null) ? null : new AssetIndex.AssetObject(hash, size, reconstruct, compressedHash, compressedSize);
+    }
+
+    public interface Listener {
+        void onAsset(final String name, final AssetIndex.AssetObject object) throws IOException;
+    }
+}
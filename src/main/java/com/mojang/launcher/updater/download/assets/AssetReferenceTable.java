@@ -0,0 +1,339 @@
+package com.mojang.launcher.updater.download.assets;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import com.mojang.launcher.WorkBudget;
+import com.mojang.launcher.updater.download.DigestEngine;
+import com.mojang.launcher.updater.download.HashIndex;
+import org.apache.commons.io.FileUtils;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.File;
+import java.io.FileFilter;
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+public class AssetReferenceTable {
+    private static final Logger LOGGER = LogManager.getLogger();
+    private static final Pattern OBJECT_NAME = Pattern.compile("[0-9a-f]{40}");
+    private static final long PIN_LIFETIME = TimeUnit.DAYS.toMillis(7L);
+
+    private final File tableFile;
+    private final File indexesDir;
+    private final File objectsDir;
+    private final AssetIndexCache cache;
+    private final HashIndex hashIndex;
+    private final Gson gson;
+    private Table table;
+    private boolean stale;
+    private boolean dirty;
+
+    public AssetReferenceTable(final File assetsDir, final AssetIndexCache cache, final HashIndex hashIndex) {
+        this.tableFile = new File(assetsDir, "launcher_asset_refs.json");
+        this.indexesDir = new File(assetsDir, "indexes");
+        this.objectsDir = new File(assetsDir, "objects");
+        this.cache = cache;
+        this.hashIndex = hashIndex;
+        this.gson = new Gson();
+        this.load();
+    }
+
+    private void load() {
+        if (this.tableFile.isFile()) {
+            try {
+                this.table = this.gson.fromJson(FileUtils.readFileToString(this.tableFile, UTF_8), Table.class);
+            } catch (IOException | JsonParseException e) {
+                AssetReferenceTable.LOGGER.warn("Couldn't read asset reference table " + this.tableFile + ", rebuilding it", e);
+            }
+        }
+        if (this.table == null || this.table.versions == null || this.table.indexes == null || this.table.counts == null || this.table.orphans == null) {
+            this.table = new Table();
+            this.stale = true;
+        }
+        if (this.table.synced == null) {
+            this.table.synced = new HashMap<>();
+        }
+        if (this.table.pins == null) {
+            this.table.pins = new HashMap<>();
+        }
+    }
+
+    public synchronized void save() {
+        if (!this.dirty) {
+            return;
+        }
+        try {
+            FileUtils.writeStringToFile(this.tableFile, this.gson.toJson(this.table), UTF_8);
+            this.dirty = false;
+        } catch (IOException e) {
+            AssetReferenceTable.LOGGER.warn("Couldn't save asset reference table " + this.tableFile, e);
+        }
+    }
+
+    private File getIndexFile(final String indexId) {
+        return new File(this.indexesDir, indexId + ".json");
+    }
+
+    private String getIndexHash(final File indexFile) throws IOException {
+        if (this.hashIndex != null) {
+            final String digest = this.hashIndex.getDigest(indexFile, "SHA-1", 40);
+            if (digest != null) {
+                return digest;
+            }
+        }
+        return DigestEngine.digest(indexFile, "SHA-1");
+    }
+
+    public synchronized void retain(final String versionId, final String indexId) {
+        final String previous = this.table.versions.put(versionId, indexId);
+        this.dirty = true;
+        if (previous != null && !previous.equals(indexId)) {
+            this.releaseIndexIfUnused(previous);
+        }
+        final File indexFile = this.getIndexFile(indexId);
+        if (this.stale || !indexFile.isFile()) {
+            return;
+        }
+        try {
+            final String indexHash = this.getIndexHash(indexFile);
+            final String counted = this.table.indexes.get(indexId);
+            if (indexHash.equals(counted)) {
+                return;
+            }
+            if (counted != null) {
+                this.table.synced.remove(indexId);
+                AssetReferenceTable.LOGGER.info("Asset index " + indexId + " changed since it was counted, rebuilding asset references");
+                this.stale = true;
+                return;
+            }
+            final CompactAssetIndex index = this.cache.get(indexFile);
+            for (int entry = 0; entry < index.size(); ++entry) {
+                if (index.isFirstWithHash(entry)) {
+                    final String hash = index.getHash(entry);
+                    this.table.counts.merge(hash, 1, Integer::sum);
+                    this.table.orphans.remove(hash);
+                }
+            }
+            this.table.indexes.put(indexId, indexHash);
+        } catch (IOException | JsonParseException e) {
+            AssetReferenceTable.LOGGER.warn("Couldn't count references of asset index " + indexId, e);
+            this.stale = true;
+        }
+    }
+
+    public synchronized void pin(final String versionId, final String indexId) {
+        this.retain(versionId, indexId);
+        final Pin pin = new Pin();
+        pin.index = indexId;
+        pin.time = System.currentTimeMillis();
+        this.table.pins.put(versionId, pin);
+        this.dirty = true;
+    }
+
+    private boolean isPinned(final String versionId) {
+        final Pin pin = this.table.pins.get(versionId);
+        if (pin == null) {
+            return false;
+        }
+        final long age = System.currentTimeMillis() - pin.time;
+        if (age >= 0L && age < PIN_LIFETIME) {
+            return true;
+        }
+        this.table.pins.remove(versionId);
+        this.dirty = true;
+        return false;
+    }
+
+    public synchronized void release(final String versionId) {
+        this.table.pins.remove(versionId);
+        final String indexId = this.table.versions.remove(versionId);
+        if (indexId != null) {
+            this.dirty = true;
+            this.releaseIndexIfUnused(indexId);
+        }
+    }
+
+    private void releaseIndexIfUnused(final String indexId) {
+        if (this.stale || this.table.versions.containsValue(indexId)) {
+            return;
+        }
+        this.table.synced.remove(indexId);
+        final String counted = this.table.indexes.remove(indexId);
+        if (counted == null) {
+            return;
+        }
+        final File indexFile = this.getIndexFile(indexId);
+        try {
+            if (!indexFile.isFile() || !counted.equals(this.getIndexHash(indexFile))) {
+                AssetReferenceTable.LOGGER.info("Asset index " + indexId + " is no longer the one that was counted, rebuilding asset references");
+                this.stale = true;
+                return;
+            }
+            final CompactAssetIndex index = this.cache.get(indexFile);
+            for (int entry = 0; entry < index.size(); ++entry) {
+                if (index.isFirstWithHash(entry)) {
+                    final String hash = index.getHash(entry);
+                    final Integer count = this.table.counts.get(hash);
+                    if (count == null || count <= 1) {
+                        this.table.counts.remove(hash);
+                        this.table.orphans.add(hash);
+                    } else {
+                        this.table.counts.put(hash, count - 1);
+                    }
+                }
+            }
+        } catch (IOException | JsonParseException e) {
+            AssetReferenceTable.LOGGER.warn("Couldn't release references of asset index " + indexId, e);
+            this.stale = true;
+        }
+    }
+
+    public synchronized void markSynced(final String indexId) {
+        if (!this.stale && this.table.indexes.containsKey(indexId) && !this.table.synced.containsKey(indexId)) {
+            this.table.synced.put(indexId, System.currentTimeMillis());
+            this.dirty = true;
+        }
+    }
+
+    public synchronized void clearSynced(final String indexId) {
+        if (this.table.synced.remove(indexId) != null) {
+            this.dirty = true;
+        }
+    }
+
+    public synchronized CompactAssetIndex getSyncedIndex(final String excludedId) {
+        if (this.stale) {
+            return null;
+        }
+        final List<String> synced = new ArrayList<>(this.table.synced.keySet());
+        synced.remove(excludedId);
+        synced.sort(Comparator.comparing(this.table.synced::get, Comparator.reverseOrder()));
+        for (final String indexId : synced) {
+            final File indexFile = this.getIndexFile(indexId);
+            try {
+                if (indexFile.isFile() && this.getIndexHash(indexFile).equals(this.table.indexes.get(indexId))) {
+                    return this.cache.get(indexFile);
+                }
+            } catch (IOException | JsonParseException e) {
+                AssetReferenceTable.LOGGER.debug("Couldn't read synced asset index " + indexId, e);
+            }
+            this.table.synced.remove(indexId);
+            this.dirty = true;
+        }
+        return null;
+    }
+
+    public synchronized void reconcile(final Map<String, String> installed) {
+        for (final String versionId : new ArrayList<>(this.table.versions.keySet())) {
+            if (!installed.containsKey(versionId) && !this.isPinned(versionId)) {
+                this.release(versionId);
+            }
+        }
+        for (final Map.Entry<String, String> entry : installed.entrySet()) {
+            if (!entry.getValue().equals(this.table.versions.get(entry.getKey())) || !this.table.indexes.containsKey(entry.getValue())) {
+                this.retain(entry.getKey(), entry.getValue());
+            }
+        }
+    }
+
+    public synchronized void collect(final Map<String, String> installed, final WorkBudget budget) {
+        int deleted = 0;
+        try {
+            if (!this.stale) {
+                this.reconcile(installed);
+            }
+            if (this.stale) {
+                this.rebuild(installed, budget);
+            }
+            for (final Iterator<String> iterator = this.table.orphans.iterator(); iterator.hasNext(); ) {
+                final String hash = iterator.next();
+                budget.spend(1);
+                iterator.remove();
+                this.dirty = true;
+                if (this.table.counts.containsKey(hash) || hash.length() <= 2) {
+                    continue;
+                }
+                final File object = new File(this.objectsDir, hash.substring(0, 2) + "/" + hash);
+                if (object.isFile()) {
+                    AssetReferenceTable.LOGGER.info("Cleaning up orphaned object {}", hash);
+                    FileUtils.deleteQuietly(object);
+                    ++deleted;
+                }
+                final File parent = object.getParentFile();
+                final String[] remaining = parent.list();
+                if (remaining != null && remaining.length == 0 && parent.delete()) {
+                    AssetReferenceTable.LOGGER.info("Deleted empty directory {}", parent);
+                }
+            }
+        } finally {
+            AssetReferenceTable.LOGGER.debug("Collected " + deleted + " orphaned objects, " + this.table.counts.size() + " objects referenced");
+            this.save();
+        }
+    }
+
+    private void rebuild(final Map<String, String> installed, final WorkBudget budget) {
+        AssetReferenceTable.LOGGER.info("Rebuilding asset reference table from " + installed.size() + " installed versions");
+        final Map<String, Pin> pins = this.table.pins;
+        this.table = new Table();
+        this.table.pins = pins;
+        this.stale = false;
+        this.dirty = true;
+        for (final Map.Entry<String, String> entry : installed.entrySet()) {
+            budget.spend(1);
+            this.retain(entry.getKey(), entry.getValue());
+        }
+        for (final String versionId : new ArrayList<>(pins.keySet())) {
+            budget.spend(1);
+            if (!installed.containsKey(versionId) && this.isPinned(versionId)) {
+                this.retain(versionId, pins.get(versionId).index);
+            }
+        }
+        if (this.stale) {
+            AssetReferenceTable.LOGGER.warn("Couldn't count every installed asset index, skipping orphaned object collection");
+            this.table.orphans.clear();
+            return;
+        }
+        final File[] directories = this.objectsDir.listFiles((FileFilter) File::isDirectory);
+        if (directories != null) {
+            for (final File directory : directories) {
+                budget.spend(1);
+                final File[] files = directory.listFiles((FileFilter) File::isFile);
+                if (files != null) {
+                    for (final File file : files) {
+                        budget.spend(1);
+                        if (isObjectName(file.getName()) && !this.table.counts.containsKey(file.getName())) {
+                            this.table.orphans.add(file.getName());
+                        }
+                    }
+                }
+                final String[] remaining = directory.list();
+                if (remaining != null && remaining.length == 0) {
+                    FileUtils.deleteQuietly(directory);
+                }
+            }
+        }
+    }
+
+    public static boolean isObjectName(final String name) {
+        return OBJECT_NAME.matcher(name).matches();
+    }
+
+    private static class Table {
+        private Map<String, String> versions = new HashMap<>();
+        private Map<String, String> indexes = new HashMap<>();
+        private Map<String, Integer> counts = new HashMap<>();
+        private Set<String> orphans = new HashSet<>();
+        private Map<String, Long> synced = new HashMap<>();
+        private Map<String, Pin> pins = new HashMap<>();
+    }
+
+    private static class Pin {
+        private String index;
+        private long time;
+    }
+}
@@ -0,0 +1,310 @@
+package com.mojang.launcher.updater.download.assets;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+
+public class CompactAssetIndex {
+    private static final int HASH_BYTES = 20;
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private final int count;
+    private final boolean virtual;
+    private final byte[] hashes;
+    private final long[] sizes;
+    private final boolean[] reconstruct;
+    private final String[] compressedHashes;
+    private final long[] compressedSizes;
+    private final char[] names;
+    private final int[] nameOffsets;
+    private final int[] nameTable;
+    private final int[] hashTable;
+    private final int uniqueCount;
+
+    private CompactAssetIndex(final Builder builder, final boolean virtual) {
+        this.count = builder.count;
+        this.virtual = virtual;
+        this.hashes = Arrays.copyOf(builder.hashes, this.count * HASH_BYTES);
+        this.sizes = Arrays.copyOf(builder.sizes, this.count);
+        this.reconstruct = Arrays.copyOf(builder.reconstruct, this.count);
+        this.compressedHashes = (builder.compressedHashes == null) ? null : Arrays.copyOf(builder.compressedHashes, this.count);
+        this.compressedSizes = (builder.compressedSizes == null) ? null : Arrays.copyOf(builder.compressedSizes, this.count);
+        this.names = Arrays.copyOf(builder.names, builder.nameLength);
+        this.nameOffsets = Arrays.copyOf(builder.nameOffsets, this.count + 1);
+        this.nameOffsets[this.count] = builder.nameLength;
+        this.nameTable = new int[tableSize(this.count)];
+        this.hashTable = new int[tableSize(this.count)];
+        int unique = 0;
+        for (int i = 0; i < this.count; ++i) {
+            this.insert(this.nameTable, this.nameHash(i), i, false);
+            if (this.insert(this.hashTable, this.hashHash(i), i, true)) {
+                ++unique;
+            }
+        }
+        this.uniqueCount = unique;
+    }
+
+    public static CompactAssetIndex read(final File file) throws IOException {
+        final Builder builder = new Builder();
+        return builder.build(AssetIndexReader.read(file, builder::add));
+    }
+
+    public static CompactAssetIndex read(final InputStream inputStream) throws IOException {
+        final Builder builder = new Builder();
+        return builder.build(AssetIndexReader.read(inputStream, builder::add));
+    }
+
+    private static int tableSize(final int entries) {
+        int size = 16;
+        while (size < entries * 2) {
+            size <<= 1;
+        }
+        return size;
+    }
+
+    private static int mix(int hash) {
+        hash ^= hash >>> 16;
+        hash *= 0x85ebca6b;
+        hash ^= hash >>> 13;
+        return hash;
+    }
+
+    private static int parseHex(final char c) {
+        if (c >= '0' && c <= '9') {
+            return c - '0';
+        }
+        if (c >= 'a' && c <= 'f') {
+            return c - 'a' + 10;
+        }
+        if (c >= 'A' && c <= 'F') {
+            return c - 'A' + 10;
+        }
+        return -1;
+    }
+
+    private static boolean parseHash(final String hex, final byte[] target, final int offset) {
+        if (hex == null || hex.length() != HASH_BYTES * 2) {
+            return false;
+        }
+        for (int i = 0; i < HASH_BYTES; ++i) {
+            final int high = parseHex(hex.charAt(i * 2));
+            final int low = parseHex(hex.charAt(i * 2 + 1));
+            if (high < 0 || low < 0) {
+                return false;
+            }
+            target[offset + i] = (byte) (high << 4 | low);
+        }
+        return true;
+    }
+
+    private boolean insert(final int[] table, final int hash, final int entry, final boolean byHash) {
+        final int mask = table.length - 1;
+        for (int slot = mix(hash) & mask; ; slot = (slot + 1) & mask) {
+            final int existing = table[slot] - 1;
+            if (existing < 0) {
+                table[slot] = entry + 1;
+                return true;
+            }
+            if (byHash ? this.hashEquals(existing, this.hashes, entry * HASH_BYTES) : this.nameEquals(existing, entry)) {
+                return false;
+            }
+        }
+    }
+
+    private int nameHash(final int entry) {
+        int hash = 0;
+        for (int i = this.nameOffsets[entry]; i < this.nameOffsets[entry + 1]; ++i) {
+            hash = 31 * hash + this.names[i];
+        }
+        return hash;
+    }
+
+    private int hashHash(final int entry) {
+        return hashHash(this.hashes, entry * HASH_BYTES);
+    }
+
+    private static int hashHash(final byte[] hash, final int offset) {
+        return (hash[offset] & 0xFF) << 24 | (hash[offset + 1] & 0xFF) << 16 | (hash[offset + 2] & 0xFF) << 8 | (hash[offset + 3] & 0xFF);
+    }
+
+    private boolean nameEquals(final int first, final int second) {
+        final int length = this.nameOffsets[first + 1] - this.nameOffsets[first];
+        if (length != this.nameOffsets[second + 1] - this.nameOffsets[second]) {
+            return false;
+        }
+        for (int i = 0; i < length; ++i) {
+            if (this.names[this.nameOffsets[first] + i] != this.names[this.nameOffsets[second] + i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean nameEquals(final int entry, final String name) {
+        final int offset = this.nameOffsets[entry];
+        if (name.length() != this.nameOffsets[entry + 1] - offset) {
+            return false;
+        }
+        for (int i = 0; i < name.length(); ++i) {
+            if (this.names[offset + i] != name.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean hashEquals(final int entry, final byte[] hash, final int offset) {
+        final int start = entry * HASH_BYTES;
+        for (int i = 0; i < HASH_BYTES; ++i) {
+            if (this.hashes[start + i] != hash[offset + i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public int size() {
+        return this.count;
+    }
+
+    public int getUniqueObjectCount() {
+        return this.uniqueCount;
+    }
+
+    public boolean isVirtual() {
+        return this.virtual;
+    }
+
+    public String getName(final int entry) {
+        return new String(this.names, this.nameOffsets[entry], this.nameOffsets[entry + 1] - this.nameOffsets[entry]);
+    }
+
+    public String getHash(final int entry) {
+        final char[] chars = new char[HASH_BYTES * 2];
+        final int start = entry * HASH_BYTES;
+        for (int i = 0; i < HASH_BYTES; ++i) {
+            chars[i * 2] = HEX[(this.hashes[start + i] >> 4) & 0xF];
+            chars[i * 2 + 1] = HEX[this.hashes[start + i] & 0xF];
+        }
+        return new String(chars);
+    }
+
+    public String getPathFromHash(final int entry) {
+        final String hash = this.getHash(entry);
+        return hash.substring(0, 2) + "/" + hash;
+    }
+
+    public long getSize(final int entry) {
+        return this.sizes[entry];
+    }
+
+    public boolean shouldReconstruct(final int entry) {
+        return this.reconstruct[entry];
+    }
+
+    public AssetIndex.AssetObject getAssetObject(final int entry) {
+        final String compressedHash = (this.compressedHashes == null) ? null : this.compressedHashes[entry];
+        final long compressedSize = (this.compressedSizes == null) ? 0L : this.compressedSizes[entry];
+        return new AssetIndex.AssetObject(this.getHash(entry), this.sizes[entry], this.reconstruct[entry], compressedHash, compressedSize);
+    }
+
+    public int indexOf(final String name) {
+        int hash = 0;
+        for (int i = 0; i < name.length(); ++i) {
+            hash = 31 * hash + name.charAt(i);
+        }
+        final int mask = this.nameTable.length - 1;
+        for (int slot = mix(hash) & mask; ; slot = (slot + 1) & mask) {
+            final int entry = this.nameTable[slot] - 1;
+            if (entry < 0) {
+                return -1;
+            }
+            if (this.nameEquals(entry, name)) {
+                return entry;
+            }
+        }
+    }
+
+    public String getHash(final String name) {
+        final int entry = this.indexOf(name);
+        return (entry < 0) ? null : this.getHash(entry);
+    }
+
+    public boolean containsHash(final String hex) {
+        final byte[] hash = new byte[HASH_BYTES];
+        if (!parseHash(hex, hash, 0)) {
+            return false;
+        }
+        final int mask = this.hashTable.length - 1;
+        for (int slot = mix(hashHash(hash, 0)) & mask; ; slot = (slot + 1) & mask) {
+            final int entry = this.hashTable[slot] - 1;
+            if (entry < 0) {
+                return false;
+            }
+            if (this.hashEquals(entry, hash, 0)) {
+                return true;
+            }
+        }
+    }
+
+    public boolean isFirstWithHash(final int entry) {
+        final int mask = this.hashTable.length - 1;
+        for (int slot = mix(this.hashHash(entry)) & mask; ; slot = (slot + 1) & mask) {
+            final int existing = this.hashTable[slot] - 1;
+            if (existing < 0 || this.hashEquals(existing, this.hashes, entry * HASH_BYTES)) {
+                return existing == entry;
+            }
+        }
+    }
+
+    public static class Builder {
+        private int count;
+        private byte[] hashes = new byte[256 * HASH_BYTES];
+        private long[] sizes = new long[256];
+        private boolean[] reconstruct = new boolean[256];
+        private String[] compressedHashes;
+        private long[] compressedSizes;
+        private int[] nameOffsets = new int[257];
+        private char[] names = new char[8192];
+        private int nameLength;
+
+        public void add(final String name, final AssetIndex.AssetObject object) throws IOException {
+            if (this.count == this.sizes.length) {
+                final int capacity = this.count * 2;
+                this.hashes = Arrays.copyOf(this.hashes, capacity * HASH_BYTES);
+                this.sizes = Arrays.copyOf(this.sizes, capacity);
+                this.reconstruct = Arrays.copyOf(this.reconstruct, capacity);
+                this.nameOffsets = Arrays.copyOf(this.nameOffsets, capacity + 1);
+                if (this.compressedHashes != null) {
+                    this.compressedHashes = Arrays.copyOf(this.compressedHashes, capacity);
+                    this.compressedSizes = Arrays.copyOf(this.compressedSizes, capacity);
+                }
+            }
+            if (object.hasCompressedAlternative()) {
+                if (this.compressedHashes == null) {
+                    this.compressedHashes = new String[this.sizes.length];
+                    this.compressedSizes = new long[this.sizes.length];
+                }
+                this.compressedHashes[this.count] = object.getCompressedHash();
+                this.compressedSizes[this.count] = object.getCompressedSize();
+            }
+            if (!parseHash(object.getHash(), this.hashes, this.count * HASH_BYTES)) {
+                throw new IOException("Invalid hash '" + object.getHash() + "' for asset " + name);
+            }
+            if (this.nameLength + name.length() > this.names.length) {
+                this.names = Arrays.copyOf(this.names, Math.max(this.names.length * 2, this.nameLength + name.length()));
+            }
+            name.getChars(0, name.length(), this.names, this.nameLength);
+            this.nameOffsets[this.count] = this.nameLength;
+            this.nameLength += name.length();
+            this.sizes[this.count] = object.getSize();
+            this.reconstruct[this.count] = object.shouldReconstruct();
+            ++this.count;
+        }
+
+        public CompactAssetIndex build(final boolean virtual) {
+            return new CompactAssetIndex(this, virtual);
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.mojang.launcher.updater.download.assets;
+
+import com.mojang.launcher.updater.ExceptionalThreadPoolExecutor;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+public class ObjectDirectorySnapshot {
+    private static final Logger LOGGER = LogManager.getLogger();
+    private static final ThreadPoolExecutor EXECUTOR;
+
+    static {
+        final int threads = Math.max(2, Math.min(8, Runtime.getRuntime().availableProcessors()));
+        EXECUTOR = new ExceptionalThreadPoolExecutor(threads, threads, 30L, TimeUnit.SECONDS);
+        EXECUTOR.allowCoreThreadTimeOut(true);
+    }
+
+    private final Map<String, Long> sizes;
+
+    private ObjectDirectorySnapshot(final Map<String, Long> sizes) {
+        this.sizes = sizes;
+    }
+
+    public static ObjectDirectorySnapshot scan(final File objectsDir) {
+        final long start = System.nanoTime();
+        final List<Future<Map<String, Long>>> shards = new ArrayList<>();
+        try (final DirectoryStream<Path> stream = Files.newDirectoryStream(objectsDir.toPath())) {
+            for (final Path shard : stream) {
+                shards.add(EXECUTOR.submit(() -> scanShard(shard)));
+            }
+        } catch (NoSuchFileException | NotDirectoryException e) {
+            return new ObjectDirectorySnapshot(Collections.emptyMap());
+        } catch (IOException e) {
+            ObjectDirectorySnapshot.LOGGER.warn("Couldn't list " + objectsDir, e);
+        }
+        final Map<String, Long> sizes = new HashMap<>();
+        for (final Future<Map<String, Long>> shard : shards) {
+            try {
+                sizes.putAll(shard.get());
+            } catch (ExecutionException e) {
+                ObjectDirectorySnapshot.LOGGER.warn("Couldn't scan part of " + objectsDir, e.getCause());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        ObjectDirectorySnapshot.LOGGER.debug("Scanned " + sizes.size() + " objects in " + shards.size() + " directories in " + (System.nanoTime() - start) / 1000000L + " ms");
+        return new ObjectDirectorySnapshot(sizes);
+    }
+
+    private static Map<String, Long> scanShard(final Path shard) throws IOException {
+        final Map<String, Long> sizes = new HashMap<>();
+        Files.walkFileTree(shard, EnumSet.noneOf(FileVisitOption.class), 1, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult visitFile(final Path file, final BasicFileAttributes attributes) {
+                if (attributes.isRegularFile()) {
+                    sizes.put(file.getFileName().toString(), attributes.size());
+                }
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFileFailed(final Path file, final IOException exc) {
+                return FileVisitResult.CONTINUE;
+            }
+        });
+        return sizes;
+    }
+
+    public long getSize(final String hash) {
+        final Long size = this.sizes.get(hash);
+        return (size == null) ? -1L : size;
+    }
+
+    public boolean contains(final String hash, final long size) {
+        return this.getSize(hash) == size;
+    }
+
+    public int size() {
+        return this.sizes.size();
+    }
+}
@@ -4,6 +4,9 @@ import com.mojang.launcher.OperatingSystem;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -25,6 +28,21 @@ public class CompatibilityRule {
         }
     }
 
+    public CompatibilityRule(final DataInput in) throws IOException {
+        this.action = SnapshotIO.readEnum(in, Action.class);
+        if (in.readBoolean()) {
+            this.os = new OSRestriction(in);
+        }
+    }
+
+    public void write(final DataOutput out) throws IOException {
+        SnapshotIO.writeEnum(out, this.action);
+        out.writeBoolean(this.os != null);
+        if (this.os != null) {
+            this.os.write(out);
+        }
+    }
+
     public Action getAppliedAction() {
         if (this.os != null && !this.os.isCurrentOperatingSystem()) {
             return null;
@@ -64,6 +82,18 @@ public class CompatibilityRule {
             this.arch = osRestriction.arch;
         }
 
+        OSRestriction(final DataInput in) throws IOException {
+            this.name = SnapshotIO.readEnum(in, OperatingSystem.class);
+            this.version = SnapshotIO.readString(in);
+            this.arch = SnapshotIO.readString(in);
+        }
+
+        void write(final DataOutput out) throws IOException {
+            SnapshotIO.writeEnum(out, this.name);
+            SnapshotIO.writeString(out, this.version);
+            SnapshotIO.writeString(out, this.arch);
+        }
+
         public OperatingSystem getName() {
             return this.name;
         }
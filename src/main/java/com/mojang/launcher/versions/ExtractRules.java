@@ -1,5 +1,8 @@
 package com.mojang.launcher.versions;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
@@ -23,6 +26,18 @@ public class ExtractRules {
         this.exclude.addAll(rules.exclude);
     }
 
+    public ExtractRules(final DataInput in) throws IOException {
+        this.exclude = new ArrayList<>();
+        final List<String> exclude = SnapshotIO.readList(in, SnapshotIO::readString);
+        if (exclude != null) {
+            this.exclude.addAll(exclude);
+        }
+    }
+
+    public void write(final DataOutput out) throws IOException {
+        SnapshotIO.writeList(out, this.exclude, SnapshotIO::writeString);
+    }
+
     public List<String> getExcludes() {
         return this.exclude;
     }
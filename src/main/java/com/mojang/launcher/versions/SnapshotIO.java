@@ -0,0 +1,93 @@
+package com.mojang.launcher.versions;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+public final class SnapshotIO {
+    private SnapshotIO() {
+    }
+
+    public static void writeString(final DataOutput out, final String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        final byte[] bytes = value.getBytes(UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    public static String readString(final DataInput in) throws IOException {
+        final int length = in.readInt();
+        if (length < 0) {
+            return null;
+        }
+        final byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, UTF_8);
+    }
+
+    public static void writeDate(final DataOutput out, final Date value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeLong(value.getTime());
+        }
+    }
+
+    public static Date readDate(final DataInput in) throws IOException {
+        return in.readBoolean() ? new Date(in.readLong()) : null;
+    }
+
+    public static void writeEnum(final DataOutput out, final Enum<?> value) throws IOException {
+        writeString(out, (value == null) ? null : value.name());
+    }
+
+    public static <T extends Enum<T>> T readEnum(final DataInput in, final Class<T> type) throws IOException {
+        final String name = readString(in);
+        if (name == null) {
+            return null;
+        }
+        try {
+            return Enum.valueOf(type, name);
+        } catch (IllegalArgumentException e) {
+            throw new IOException("Unknown " + type.getSimpleName() + " " + name, e);
+        }
+    }
+
+    public static <T> void writeList(final DataOutput out, final List<T> values, final Writer<T> writer) throws IOException {
+        if (values == null) {
+            out.writeInt(-1);
+            return;
+        }
+        out.writeInt(values.size());
+        for (final T value : values) {
+            writer.write(out, value);
+        }
+    }
+
+    public static <T> List<T> readList(final DataInput in, final Reader<T> reader) throws IOException {
+        final int size = in.readInt();
+        if (size < 0) {
+            return null;
+        }
+        final List<T> values = new ArrayList<>(size);
+        for (int i = 0; i < size; ++i) {
+            values.add(reader.read(in));
+        }
+        return values;
+    }
+
+    public interface Writer<T> {
+        void write(DataOutput out, T value) throws IOException;
+    }
+
+    public interface Reader<T> {
+        T read(DataInput in) throws IOException;
+    }
+}
@@ -1,8 +1,8 @@
 package net.minecraft.launcher;
 
 import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
-import com.google.gson.Gson;
 import com.mojang.authlib.Agent;
 import com.mojang.authlib.UserAuthentication;
 import com.mojang.authlib.exceptions.AuthenticationException;
@@ -10,7 +10,8 @@ import com.mojang.authlib.exceptions.InvalidCredentialsException;
 import com.mojang.launcher.OperatingSystem;
 import com.mojang.launcher.updater.DateTypeAdapter;
 import com.mojang.launcher.updater.VersionSyncInfo;
-import com.mojang.launcher.updater.download.assets.AssetIndex;
+import com.mojang.launcher.updater.download.MirrorServer;
+import com.mojang.launcher.updater.download.assets.AssetReferenceTable;
 import com.mojang.launcher.versions.CompleteVersion;
 import com.mojang.launcher.versions.Version;
 import com.mojang.util.UUIDTypeAdapter;
@@ -38,6 +39,7 @@ import java.net.PasswordAuthentication;
 import java.net.Proxy;
 import java.text.DateFormat;
 import java.util.*;
+import java.util.concurrent.TimeUnit;
 
 import static java.nio.charset.StandardCharsets.UTF_8;
 import static java.text.DateFormat.MEDIUM;
@@ -47,6 +49,7 @@ import static net.minecraft.launcher.LauncherConstants.VERSION_MINIMUM_SUPPORTED
 
 public class Launcher {
     private static final Logger LOGGER = LogManager.getLogger();
+    private static final long DEFAULT_PREFETCH_BUDGET = 512L;
 
     static {
         Thread.currentThread().setContextClassLoader(Launcher.class.getClassLoader());
@@ -56,17 +59,22 @@ public class Launcher {
     private final Integer bootstrapVersion;
     private final MinecraftUserInterface userInterface;
     private final ProfileManager profileManager;
-    private final Gson gson;
     private final GameLaunchDispatcher launchDispatcher;
     private UUID clientToken;
     private String requestedUser;
+    private List<String> mirrors;
+    private Integer mirrorPort;
+    private MirrorServer mirrorServer;
+    private boolean keepCompressedAssets;
+    private long prefetchBudget;
+    private VersionPrefetcher versionPrefetcher;
+    private MaintenanceScheduler maintenanceScheduler;
 
     public Launcher(final JFrame frame, final File workingDirectory, final Proxy proxy, final PasswordAuthentication proxyAuth, final String[] args) {
         this(frame, workingDirectory, proxy, proxyAuth, args, 0);
     }
 
     public Launcher(final JFrame frame, final File workingDirectory, final Proxy proxy, final PasswordAuthentication proxyAuth, final String[] args, final Integer bootstrapVersion) {
-        this.gson = new Gson();
         this.clientToken = UUID.randomUUID();
         this.setupErrorHandling();
         this.bootstrapVersion = bootstrapVersion;
@@ -89,44 +97,38 @@ public class Launcher {
         Launcher.LOGGER.info("System.getProperty('sun.arch.data.model') == '" + System.getProperty("sun.arch.data.model") + "'");
         Launcher.LOGGER.info("proxy == " + proxy);
         this.launchDispatcher = new GameLaunchDispatcher(this, this.processArgs(args));
-        this.launcher = new com.mojang.launcher.Launcher(this.userInterface, workingDirectory, proxy, proxyAuth, new MinecraftVersionManager(new LocalVersionList(workingDirectory), new RemoteVersionList(LauncherConstants.getProperties().getVersionManifest(), proxy)), Agent.MINECRAFT, MinecraftReleaseTypeFactory.instance(), FORMAT_VERSION);
+        this.launcher = new com.mojang.launcher.Launcher(this.userInterface, workingDirectory, proxy, proxyAuth, new MinecraftVersionManager(new LocalVersionList(workingDirectory), new RemoteVersionList(LauncherConstants.getProperties().getVersionManifest(), proxy, new File(workingDirectory, "versions/version_manifest.json"))), Agent.MINECRAFT, MinecraftReleaseTypeFactory.instance(), FORMAT_VERSION);
         this.profileManager = new ProfileManager(this);
+        this.setupMirrors(workingDirectory);
+        ((MinecraftVersionManager) this.getLauncher().getVersionManager()).setKeepCompressedAssets(this.keepCompressedAssets);
+        this.setupMaintenance(workingDirectory);
+        this.versionPrefetcher = new VersionPrefetcher(this, this.prefetchBudget);
+        this.profileManager.addRefreshedProfilesListener(this.versionPrefetcher);
         ((SwingUserInterface) this.userInterface).initializeFrame();
         this.getLauncher().getVersionManager().getExecutorService().submit(() -> AnalyticsSubmission.sendStartup(proxy));
         this.refreshVersionsAndProfiles();
     }
 
-    private static Collection<File> listEmptyDirectories(final File directory) {
-        final List<File> result = Lists.newArrayList();
+    private static boolean deleteEmptyDirectories(final File directory, final MaintenanceScheduler.Budget budget) {
         final File[] files = directory.listFiles();
-        if (files != null) {
-            for (final File file : files) {
-                if (file.isDirectory()) {
-                    final File[] subFiles = file.listFiles();
-                    if (subFiles == null || subFiles.length == 0) {
-                        result.add(file);
-                    } else {
-                        result.addAll(listEmptyDirectories(file));
-                    }
-                }
-            }
+        budget.spend(1);
+        if (files == null) {
+            return false;
         }
-        return result;
-    }
-
-    private static void deleteEmptyDirectories(final File directory) {
-        while (true) {
-            final Collection<File> files = listEmptyDirectories(directory);
-            if (files.isEmpty()) {
-                return;
+        boolean empty = true;
+        for (final File file : files) {
+            if (!file.isDirectory() || !deleteEmptyDirectories(file, budget)) {
+                empty = false;
+                continue;
             }
-            for (final File file : files) {
-                if (!FileUtils.deleteQuietly(file)) {
-                    return;
-                }
+            budget.spend(1);
+            if (FileUtils.deleteQuietly(file)) {
                 Launcher.LOGGER.info("Deleted empty directory {}", file);
+            } else {
+                empty = false;
             }
         }
+        return empty;
     }
 
     private void setupErrorHandling() {
@@ -137,6 +139,10 @@ public class Launcher {
         final OptionParser optionParser = new OptionParser();
         optionParser.allowsUnrecognizedOptions();
         final OptionSpec<String> userOption = optionParser.accepts("user").withRequiredArg().ofType(String.class);
+        final OptionSpec<String> mirrorOption = optionParser.accepts("mirror").withRequiredArg().ofType(String.class);
+        final OptionSpec<Integer> serveMirrorOption = optionParser.accepts("serveMirror").withRequiredArg().ofType(Integer.class);
+        final OptionSpec<Void> keepCompressedAssetsOption = optionParser.accepts("keepCompressedAssets");
+        final OptionSpec<Long> prefetchBudgetOption = optionParser.accepts("prefetchBudget").withRequiredArg().ofType(Long.class).defaultsTo(DEFAULT_PREFETCH_BUDGET);
         final OptionSpec<String> nonOptions = optionParser.nonOptions();
         OptionSet optionSet;
         try {
@@ -147,10 +153,36 @@ public class Launcher {
         if (optionSet.has(userOption)) {
             this.requestedUser = optionSet.valueOf(userOption);
         }
+        this.mirrors = optionSet.valuesOf(mirrorOption);
+        if (optionSet.has(serveMirrorOption)) {
+            this.mirrorPort = optionSet.valueOf(serveMirrorOption);
+        }
+        this.keepCompressedAssets = optionSet.has(keepCompressedAssetsOption);
+        this.prefetchBudget = optionSet.valueOf(prefetchBudgetOption) * 1048576L;
         final List<String> remainingOptions = optionSet.valuesOf(nonOptions);
         return remainingOptions.toArray(new String[remainingOptions.size()]);
     }
 
+    private void setupMirrors(final File workingDirectory) {
+        final MinecraftVersionManager versionManager = (MinecraftVersionManager) this.getLauncher().getVersionManager();
+        if (this.mirrors != null && !this.mirrors.isEmpty()) {
+            versionManager.getMirrorList().setMirrors(this.mirrors);
+        }
+        if (this.mirrorPort != null) {
+            this.mirrorServer = new MirrorServer(versionManager.getObjectStore(), new File(workingDirectory, "assets/objects"), this.mirrorPort);
+            try {
+                this.mirrorServer.start();
+            } catch (IOException e) {
+                Launcher.LOGGER.error("Couldn't start mirror server on port " + this.mirrorPort, e);
+                this.mirrorServer = null;
+            }
+        }
+    }
+
+    public MirrorServer getMirrorServer() {
+        return this.mirrorServer;
+    }
+
     private void refreshVersionsAndProfiles() {
         this.getLauncher().getVersionManager().getExecutorService().submit(() -> {
             try {
@@ -254,43 +286,27 @@ public class Launcher {
         this.clientToken = clientToken;
     }
 
-    private void cleanupOrphanedAssets() throws IOException {
-        final File assetsDir = new File(this.getLauncher().getWorkingDirectory(), "assets");
-        final File indexDir = new File(assetsDir, "indexes");
-        final File objectsDir = new File(assetsDir, "objects");
-        final Set<String> referencedObjects = Sets.newHashSet();
-        if (!objectsDir.isDirectory()) {
+    private void cleanupOrphanedAssets(final MaintenanceScheduler.Budget budget) {
+        final AssetReferenceTable references = ((MinecraftVersionManager) this.getLauncher().getVersionManager()).getAssetReferences();
+        if (references == null) {
             return;
         }
+        final Map<String, String> installed = Maps.newHashMap();
         for (final VersionSyncInfo syncInfo : this.getLauncher().getVersionManager().getInstalledVersions()) {
             if (syncInfo.getLocalVersion() instanceof CompleteMinecraftVersion) {
+                budget.spend(1);
                 final CompleteMinecraftVersion version = (CompleteMinecraftVersion) syncInfo.getLocalVersion();
-                final String assetVersion = version.getAssetIndex().getId();
-                final File indexFile = new File(indexDir, assetVersion + ".json");
-                final AssetIndex index = this.gson.fromJson(FileUtils.readFileToString(indexFile, UTF_8), AssetIndex.class);
-                for (final AssetIndex.AssetObject object : index.getUniqueObjects().keySet()) {
-                    referencedObjects.add(object.getHash().toLowerCase());
-                }
-            }
-        }
-        final File[] directories = objectsDir.listFiles((FileFilter) DirectoryFileFilter.DIRECTORY);
-        if (directories != null) {
-            for (final File directory : directories) {
-                final File[] files = directory.listFiles((FileFilter) FileFileFilter.FILE);
-                if (files != null) {
-                    for (final File file : files) {
-                        if (!referencedObjects.contains(file.getName().toLowerCase())) {
-                            Launcher.LOGGER.info("Cleaning up orphaned object {}", file.getName());
-                            FileUtils.deleteQuietly(file);
-                        }
-                    }
-                }
+                installed.put(version.getId(), version.getAssetIndex().getId());
             }
         }
-        deleteEmptyDirectories(objectsDir);
+        references.collect(installed, budget);
     }
 
     public void cleanupOrphanedLibraries() {
+        this.cleanupOrphanedLibraries(MaintenanceScheduler.Budget.UNLIMITED);
+    }
+
+    private void cleanupOrphanedLibraries(final MaintenanceScheduler.Budget budget) {
         final File librariesDir = new File(this.getLauncher().getWorkingDirectory(), "libraries");
         final Set<File> referencedLibraries = Sets.newHashSet();
         if (!librariesDir.isDirectory()) {
@@ -319,16 +335,17 @@ public class Launcher {
         final Collection<File> libraries = FileUtils.listFiles(librariesDir, TrueFileFilter.TRUE, TrueFileFilter.TRUE);
         if (libraries != null) {
             for (final File file2 : libraries) {
+                budget.spend(1);
                 if (!referencedLibraries.contains(file2)) {
                     Launcher.LOGGER.info("Cleaning up orphaned library {}", file2);
                     FileUtils.deleteQuietly(file2);
                 }
             }
         }
-        deleteEmptyDirectories(librariesDir);
+        deleteEmptyDirectories(librariesDir, budget);
     }
 
-    private void cleanupOldSkins() {
+    private void cleanupOldSkins(final MaintenanceScheduler.Budget budget) {
         final File assetsDir = new File(this.getLauncher().getWorkingDirectory(), "assets");
         final File skinsDir = new File(assetsDir, "skins");
         if (!skinsDir.isDirectory()) {
@@ -337,14 +354,15 @@ public class Launcher {
         final Collection<File> files = FileUtils.listFiles(skinsDir, new AgeFileFilter(System.currentTimeMillis() - 604800000L), TrueFileFilter.TRUE);
         if (files != null) {
             for (final File file : files) {
+                budget.spend(1);
                 Launcher.LOGGER.info("Cleaning up old skin {}", file.getName());
                 FileUtils.deleteQuietly(file);
             }
         }
-        deleteEmptyDirectories(skinsDir);
+        deleteEmptyDirectories(skinsDir, budget);
     }
 
-    private void cleanupOldVirtuals() throws IOException {
+    private void cleanupOldVirtuals(final MaintenanceScheduler.Budget budget) throws IOException {
         final File assetsDir = new File(this.getLauncher().getWorkingDirectory(), "assets");
         final File virtualsDir = new File(assetsDir, "virtual");
         final DateTypeAdapter dateAdapter = new DateTypeAdapter();
@@ -357,6 +375,7 @@ public class Launcher {
         final File[] directories = virtualsDir.listFiles((FileFilter) DirectoryFileFilter.DIRECTORY);
         if (directories != null) {
             for (final File directory : directories) {
+                budget.spend(1);
                 final File lastUsedFile = new File(directory, ".lastused");
                 if (lastUsedFile.isFile()) {
                     final Date lastUsed = dateAdapter.deserializeToDate(FileUtils.readFileToString(lastUsedFile, UTF_8));
@@ -370,10 +389,34 @@ public class Launcher {
                 }
             }
         }
-        deleteEmptyDirectories(virtualsDir);
+        deleteEmptyDirectories(virtualsDir, budget);
+    }
+
+    private void cleanupStalePartials(final MaintenanceScheduler.Budget budget) {
+        final File objectsDir = new File(this.getLauncher().getWorkingDirectory(), "assets/objects");
+        final Calendar calendar = Calendar.getInstance();
+        calendar.add(Calendar.DAY_OF_MONTH, -5);
+        final long cutoff = calendar.getTimeInMillis();
+        final File[] directories = objectsDir.listFiles((FileFilter) DirectoryFileFilter.DIRECTORY);
+        if (directories == null) {
+            return;
+        }
+        for (final File directory : directories) {
+            budget.spend(1);
+            final File[] files = directory.listFiles((FileFilter) FileFileFilter.FILE);
+            if (files != null) {
+                for (final File file : files) {
+                    budget.spend(1);
+                    if (!AssetReferenceTable.isObjectName(file.getName()) && file.lastModified() < cutoff) {
+                        Launcher.LOGGER.info("Cleaning up stale partial download {}", file);
+                        FileUtils.deleteQuietly(file);
+                    }
+                }
+            }
+        }
     }
 
-    private void cleanupOldNatives() {
+    private void cleanupOldNatives(final MaintenanceScheduler.Budget budget) {
         final File root = new File(this.launcher.getWorkingDirectory(), "versions/");
         Launcher.LOGGER.info("Looking for old natives & assets to clean up...");
         final IOFileFilter ageFilter = new AgeFileFilter(System.currentTimeMillis() - 3600000L);
@@ -383,9 +426,11 @@ public class Launcher {
         final File[] versions = root.listFiles((FileFilter) DirectoryFileFilter.DIRECTORY);
         if (versions != null) {
             for (final File version : versions) {
+                budget.spend(1);
                 final File[] files = version.listFiles((FileFilter) FileFilterUtils.and(new PrefixFileFilter(version.getName() + "-natives-"), ageFilter));
                 if (files != null) {
                     for (final File folder : files) {
+                        budget.spend(1);
                         Launcher.LOGGER.debug("Deleting " + folder);
                         FileUtils.deleteQuietly(folder);
                     }
@@ -394,7 +439,7 @@ public class Launcher {
         }
     }
 
-    private void cleanupOrphanedVersions() {
+    private void cleanupOrphanedVersions(final MaintenanceScheduler.Budget budget) {
         Launcher.LOGGER.info("Looking for orphaned versions to clean up...");
         final Set<String> referencedVersions = Sets.newHashSet();
         for (final Profile profile : this.getProfileManager().getProfiles().values()) {
@@ -426,6 +471,7 @@ public class Launcher {
                 if (referencedVersions.contains(version2.getId()) || version2.getType() != MinecraftReleaseType.SNAPSHOT) {
                     continue;
                 }
+                budget.spend(1);
                 if (versionSyncInfo.isOnRemote()) {
                     Launcher.LOGGER.info("Deleting orphaned version {} because it's a snapshot available on remote", version2.getId());
                     try {
@@ -448,12 +494,22 @@ public class Launcher {
         }
     }
 
-    public void performCleanups() throws IOException {
-        this.cleanupOrphanedVersions();
-        this.cleanupOrphanedAssets();
-        this.cleanupOldSkins();
-        this.cleanupOldNatives();
-        this.cleanupOldVirtuals();
+    private void setupMaintenance(final File workingDirectory) {
+        this.maintenanceScheduler = new MaintenanceScheduler(new File(workingDirectory, "launcher_maintenance.json"));
+        this.maintenanceScheduler.register("versions", 1L, TimeUnit.DAYS, this::cleanupOrphanedVersions);
+        this.maintenanceScheduler.register("assets", 1L, TimeUnit.DAYS, this::cleanupOrphanedAssets);
+        this.maintenanceScheduler.register("skins", 1L, TimeUnit.DAYS, this::cleanupOldSkins);
+        this.maintenanceScheduler.register("natives", 1L, TimeUnit.HOURS, this::cleanupOldNatives);
+        this.maintenanceScheduler.register("virtuals", 1L, TimeUnit.DAYS, this::cleanupOldVirtuals);
+        this.maintenanceScheduler.register("partials", 1L, TimeUnit.DAYS, this::cleanupStalePartials);
+    }
+
+    public VersionPrefetcher getVersionPrefetcher() {
+        return this.versionPrefetcher;
+    }
+
+    public MaintenanceScheduler getMaintenanceScheduler() {
+        return this.maintenanceScheduler;
     }
 
     public ProfileManager getProfileManager() {
@@ -1,5 +1,6 @@
 package net.minecraft.launcher;
 
+import com.mojang.launcher.updater.download.HttpTransport;
 import io.github.lightwayup.minecraftfreedomlauncher.checker.RequirementsChecker;
 import io.github.lightwayup.minecraftfreedomlauncher.userinterface.IconManager;
 import io.github.lightwayup.minecraftfreedomlauncher.userinterface.LookAndFeelManager;
@@ -22,6 +23,7 @@ public class Main {
     private static final Logger LOGGER = LogManager.getLogger();
 
     public static void startLauncher(final String[] args, final JFrame loadingFrame) {
+        HttpTransport.configureKeepAlive(com.mojang.launcher.Launcher.MAX_CONNECTIONS_PER_HOST);
         LookAndFeelManager.setLookAndFeel();
         RequirementsChecker.checkRequirements(loadingFrame);
         final OptionParser parser = new OptionParser();
@@ -0,0 +1,188 @@
+package net.minecraft.launcher;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import com.google.gson.reflect.TypeToken;
+import com.mojang.launcher.WorkBudget;
+import org.apache.commons.io.FileUtils;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.*;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+public class MaintenanceScheduler {
+    private static final Logger LOGGER = LogManager.getLogger();
+    private static final int OPERATIONS_PER_SLICE = 200;
+    private static final long SLICE_PAUSE = 100L;
+
+    private final File stateFile;
+    private final Gson gson;
+    private final Map<String, ScheduledTask> tasks;
+    private final Map<String, Long> lastRun;
+    private final ScheduledExecutorService executor;
+    private ScheduledFuture<?> pending;
+    private volatile Budget budget;
+
+    public MaintenanceScheduler(final File stateFile) {
+        this.stateFile = stateFile;
+        this.gson = new Gson();
+        this.tasks = new LinkedHashMap<>();
+        this.lastRun = new ConcurrentHashMap<>();
+        this.executor = Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder().setNameFormat("Maintenance").setDaemon(true).setPriority(Thread.MIN_PRIORITY).build());
+        this.load();
+    }
+
+    private void load() {
+        if (!this.stateFile.isFile()) {
+            return;
+        }
+        try {
+            final Map<String, Long> saved = this.gson.fromJson(FileUtils.readFileToString(this.stateFile, UTF_8), new TypeToken<HashMap<String, Long>>() {
+            }.getType());
+            if (saved != null) {
+                this.lastRun.putAll(saved);
+            }
+        } catch (IOException | JsonParseException e) {
+            MaintenanceScheduler.LOGGER.warn("Couldn't read maintenance state " + this.stateFile + ", running everything again", e);
+        }
+    }
+
+    private void save() {
+        try {
+            FileUtils.writeStringToFile(this.stateFile, this.gson.toJson(new HashMap<>(this.lastRun)), UTF_8);
+        } catch (IOException e) {
+            MaintenanceScheduler.LOGGER.warn("Couldn't save maintenance state " + this.stateFile, e);
+        }
+    }
+
+    public synchronized void register(final String name, final long interval, final TimeUnit unit, final Task task) {
+        this.tasks.put(name, new ScheduledTask(name, unit.toMillis(interval), task));
+    }
+
+    public synchronized void schedule(final long delay, final TimeUnit unit) {
+        if (this.pending != null && !this.pending.isDone()) {
+            return;
+        }
+        MaintenanceScheduler.LOGGER.debug("Scheduling maintenance in " + unit.toSeconds(delay) + " seconds");
+        this.pending = this.executor.schedule(this::runDueTasks, delay, unit);
+    }
+
+    public synchronized void cancel() {
+        if (this.pending != null) {
+            this.pending.cancel(false);
+            this.pending = null;
+        }
+        final Budget running = this.budget;
+        if (running != null) {
+            running.cancel();
+        }
+    }
+
+    public void shutdown() {
+        this.cancel();
+        this.executor.shutdownNow();
+    }
+
+    private void runDueTasks() {
+        final List<ScheduledTask> due = new ArrayList<>();
+        final Budget current = new Budget(OPERATIONS_PER_SLICE, SLICE_PAUSE);
+        synchronized (this) {
+            final long now = System.currentTimeMillis();
+            for (final ScheduledTask task : this.tasks.values()) {
+                final Long last = this.lastRun.get(task.name);
+                if (last == null || now - last >= task.interval || last > now) {
+                    due.add(task);
+                }
+            }
+            this.budget = current;
+        }
+        try {
+            for (final ScheduledTask task : due) {
+                if (current.isCancelled()) {
+                    break;
+                }
+                MaintenanceScheduler.LOGGER.info("Running maintenance task " + task.name);
+                try {
+                    task.task.run(current);
+                    this.lastRun.put(task.name, System.currentTimeMillis());
+                    this.save();
+                } catch (CancellationException e) {
+                    MaintenanceScheduler.LOGGER.info("Maintenance task " + task.name + " was cancelled, it will run again next time");
+                } catch (Exception e) {
+                    MaintenanceScheduler.LOGGER.warn("Maintenance task " + task.name + " failed", e);
+                }
+            }
+        } finally {
+            synchronized (this) {
+                if (this.budget == current) {
+                    this.budget = null;
+                }
+            }
+        }
+    }
+
+    public interface Task {
+        void run(Budget budget) throws IOException;
+    }
+
+    public static class Budget implements WorkBudget {
+        public static final Budget UNLIMITED = new Budget(Integer.MAX_VALUE, 0L);
+
+        private final int operationsPerSlice;
+        private final long pause;
+        private volatile boolean cancelled;
+        private int operations;
+
+        Budget(final int operationsPerSlice, final long pause) {
+            this.operationsPerSlice = operationsPerSlice;
+            this.pause = pause;
+        }
+
+        @Override
+        public void spend(final int count) {
+            if (this.cancelled || Thread.currentThread().isInterrupted()) {
+                throw new CancellationException();
+            }
+            this.operations += count;
+            if (this.operations < this.operationsPerSlice) {
+                return;
+            }
+            this.operations = 0;
+            try {
+                Thread.sleep(this.pause);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new CancellationException();
+            }
+            if (this.cancelled) {
+                throw new CancellationException();
+            }
+        }
+
+        public boolean isCancelled() {
+            return this.cancelled;
+        }
+
+        void cancel() {
+            this.cancelled = true;
+        }
+    }
+
+    private static class ScheduledTask {
+        private final String name;
+        private final long interval;
+        private final Task task;
+
+        ScheduledTask(final String name, final long interval, final Task task) {
+            this.name = name;
+            this.interval = interval;
+            this.task = task;
+        }
+    }
+}
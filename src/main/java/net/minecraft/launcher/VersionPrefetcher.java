@@ -0,0 +1,194 @@
+package net.minecraft.launcher;
+
+import com.google.common.collect.Maps;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.mojang.launcher.game.GameInstanceStatus;
+import com.mojang.launcher.updater.VersionSyncInfo;
+import com.mojang.launcher.updater.download.BandwidthLimiter;
+import com.mojang.launcher.updater.download.DownloadJob;
+import com.mojang.launcher.updater.download.DownloadListener;
+import com.mojang.launcher.updater.download.DownloadPriority;
+import com.mojang.launcher.updater.download.Downloadable;
+import net.minecraft.launcher.profile.Profile;
+import net.minecraft.launcher.profile.ProfileManager;
+import net.minecraft.launcher.profile.RefreshedProfilesListener;
+import net.minecraft.launcher.updater.CompleteMinecraftVersion;
+import net.minecraft.launcher.updater.MinecraftVersionManager;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+public class VersionPrefetcher implements RefreshedProfilesListener, DownloadListener {
+    private static final Logger LOGGER = LogManager.getLogger();
+    private static final long PREFETCH_DELAY = 30L;
+    private static final int MAX_VERSIONS = 3;
+    private static final long MIN_FREE_SPACE = 1073741824L;
+    private static final long CANCEL_TIMEOUT = 30L;
+
+    private final Launcher minecraftLauncher;
+    private final long diskBudget;
+    private final ScheduledExecutorService executor;
+    private final Set<String> prefetched;
+    private final Map<DownloadJob, String> jobs;
+    private ScheduledFuture<?> pending;
+    private boolean cancelled;
+    private long spent;
+
+    public VersionPrefetcher(final Launcher minecraftLauncher, final long diskBudget) {
+        this.minecraftLauncher = minecraftLauncher;
+        this.diskBudget = diskBudget;
+        this.executor = Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder().setNameFormat("Version prefetcher").setDaemon(true).setPriority(Thread.MIN_PRIORITY).build());
+        this.prefetched = Collections.newSetFromMap(new ConcurrentHashMap<>());
+        this.jobs = new ConcurrentHashMap<>();
+    }
+
+    @Override
+    public synchronized void onProfilesRefreshed(final ProfileManager manager) {
+        if (this.diskBudget <= 0L || (this.pending != null && !this.pending.isDone())) {
+            return;
+        }
+        this.cancelled = false;
+        this.pending = this.executor.schedule(this::prefetch, PREFETCH_DELAY, TimeUnit.SECONDS);
+    }
+
+    public void cancel() {
+        final List<DownloadJob> running;
+        synchronized (this) {
+            this.cancelled = true;
+            if (this.pending != null) {
+                this.pending.cancel(false);
+                this.pending = null;
+            }
+            running = new ArrayList<>(this.jobs.keySet());
+            for (final DownloadJob job : running) {
+                job.cancel();
+            }
+        }
+        for (final DownloadJob job : running) {
+            try {
+                if (!job.awaitTermination(CANCEL_TIMEOUT, TimeUnit.SECONDS)) {
+                    VersionPrefetcher.LOGGER.warn("Prefetch job '" + job.getName() + "' is still running after being cancelled");
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private List<Map.Entry<Profile, VersionSyncInfo>> getCandidates() {
+        final MinecraftVersionManager versionManager = (MinecraftVersionManager) this.minecraftLauncher.getLauncher().getVersionManager();
+        final ProfileManager profileManager = this.minecraftLauncher.getProfileManager();
+        final List<Profile> profiles = new ArrayList<>();
+        final Profile selected = profileManager.getSelectedProfile();
+        if (selected != null) {
+            profiles.add(selected);
+        }
+        for (final Profile profile : profileManager.getProfiles().values()) {
+            if (profile != selected) {
+                profiles.add(profile);
+            }
+        }
+        final Map<String, Map.Entry<Profile, VersionSyncInfo>> candidates = new LinkedHashMap<>();
+        for (final Profile profile : profiles) {
+            VersionSyncInfo syncInfo = null;
+            if (profile.getLastVersionId() != null) {
+                syncInfo = versionManager.getVersionSyncInfo(profile.getLastVersionId());
+            }
+            if (syncInfo == null || syncInfo.getLatestVersion() == null) {
+                final List<VersionSyncInfo> versions = versionManager.getVersions(profile.getVersionFilter());
+                syncInfo = versions.isEmpty() ? null : versions.get(0);
+            }
+            if (syncInfo != null && syncInfo.getLatestVersion() != null) {
+                candidates.putIfAbsent(syncInfo.getLatestVersion().getId(), Maps.immutableEntry(profile, syncInfo));
+            }
+        }
+        return new ArrayList<>(candidates.values());
+    }
+
+    private void prefetch() {
+        if (this.minecraftLauncher.getLaunchDispatcher().getInstanceStatus() != GameInstanceStatus.IDLE) {
+            VersionPrefetcher.LOGGER.debug("Not prefetching versions whilst a game is running");
+            return;
+        }
+        final MinecraftVersionManager versionManager = (MinecraftVersionManager) this.minecraftLauncher.getLauncher().getVersionManager();
+        final com.mojang.launcher.Launcher launcher = this.minecraftLauncher.getLauncher();
+        int started = 0;
+        for (final Map.Entry<Profile, VersionSyncInfo> candidate : this.getCandidates()) {
+            if (started >= MAX_VERSIONS) {
+                break;
+            }
+            final VersionSyncInfo syncInfo = candidate.getValue();
+            final String id = syncInfo.getLatestVersion().getId();
+            if (this.prefetched.contains(id)) {
+                continue;
+            }
+            try {
+                final CompleteMinecraftVersion version = versionManager.getLatestCompleteVersion(syncInfo);
+                if (!version.appliesToCurrentEnvironment()) {
+                    continue;
+                }
+                final DownloadJob job = new DownloadJob("Prefetch " + id, true, this, DownloadPriority.BACKGROUND);
+                final Integer rateLimit = candidate.getKey().getDownloadRateLimit();
+                job.setBandwidthLimiter(new BandwidthLimiter((rateLimit == null) ? 0L : rateLimit * 1024L));
+                versionManager.downloadVersion(syncInfo, job);
+                versionManager.downloadResources(job, version);
+                final long bytes = getMissingBytes(job.getAllFiles());
+                final long available = Math.min(this.diskBudget - this.spent, launcher.getWorkingDirectory().getUsableSpace() - MIN_FREE_SPACE);
+                if (bytes > available) {
+                    VersionPrefetcher.LOGGER.info("Not prefetching " + id + ": needs " + bytes + " bytes but only " + Math.max(0L, available) + " are within budget");
+                    continue;
+                }
+                this.prefetched.add(id);
+                if (versionManager.getAssetReferences() != null) {
+                    versionManager.getAssetReferences().pin(version.getId(), version.getAssetIndex().getId());
+                    versionManager.getAssetReferences().save();
+                }
+                if (bytes == 0L) {
+                    continue;
+                }
+                this.spent += bytes;
+                ++started;
+                synchronized (this) {
+                    if (this.cancelled) {
+                        this.prefetched.remove(id);
+                        return;
+                    }
+                    VersionPrefetcher.LOGGER.info("Prefetching about " + bytes + " bytes for " + id);
+                    this.jobs.put(job, id);
+                    job.startDownloading(launcher.getDownloaderExecutorService());
+                }
+            } catch (Exception e) {
+                VersionPrefetcher.LOGGER.warn("Couldn't prefetch " + id, e);
+            }
+        }
+    }
+
+    private static long getMissingBytes(final List<Downloadable> downloadables) {
+        long bytes = 0L;
+        synchronized (downloadables) {
+            for (final Downloadable downloadable : downloadables) {
+                if (!downloadable.getTarget().isFile()) {
+                    bytes += Math.max(0L, downloadable.getExpectedSize());
+                }
+            }
+        }
+        return bytes;
+    }
+
+    @Override
+    public void onDownloadJobFinished(final DownloadJob job) {
+        final String id = this.jobs.remove(job);
+        ((MinecraftVersionManager) this.minecraftLauncher.getLauncher().getVersionManager()).invalidateVersionCache();
+        if (id != null && job.isCancelled()) {
+            this.prefetched.remove(id);
+        }
+        VersionPrefetcher.LOGGER.info("Prefetch job '" + job.getName() + "' " + (job.isCancelled() ? "cancelled" : "finished") + " (" + job.getSuccessful() + " files)");
+    }
+
+    @Override
+    public void onDownloadJobProgressChanged(final DownloadJob job) {
+    }
+}
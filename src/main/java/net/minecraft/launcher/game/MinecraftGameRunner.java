@@ -3,6 +3,7 @@ package net.minecraft.launcher.game;
 import com.google.common.base.MoreObjects;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
+import com.google.gson.JsonParseException;
 import com.mojang.authlib.UserAuthentication;
 import com.mojang.authlib.UserType;
 import com.mojang.authlib.properties.PropertyMap;
@@ -17,9 +18,15 @@ import com.mojang.launcher.game.process.GameProcessRunnable;
 import com.mojang.launcher.game.process.direct.DirectGameProcessFactory;
 import com.mojang.launcher.game.runner.AbstractGameRunner;
 import com.mojang.launcher.updater.DateTypeAdapter;
+import com.mojang.launcher.updater.DownloadProgress;
+import com.mojang.launcher.updater.ExceptionalThreadPoolExecutor;
 import com.mojang.launcher.updater.VersionSyncInfo;
+import com.mojang.launcher.updater.download.DigestEngine;
 import com.mojang.launcher.updater.download.Downloadable;
-import com.mojang.launcher.updater.download.assets.AssetIndex;
+import com.mojang.launcher.updater.download.HashIndex;
+import com.mojang.launcher.updater.download.ObjectStore;
+import com.mojang.launcher.updater.download.assets.AssetIndexCache;
+import com.mojang.launcher.updater.download.assets.CompactAssetIndex;
 import com.mojang.launcher.versions.ExtractRules;
 import com.mojang.util.UUIDTypeAdapter;
 import net.minecraft.launcher.Launcher;
@@ -27,6 +34,7 @@ import net.minecraft.launcher.profile.LauncherVisibilityRule;
 import net.minecraft.launcher.profile.Profile;
 import net.minecraft.launcher.updater.CompleteMinecraftVersion;
 import net.minecraft.launcher.updater.Library;
+import net.minecraft.launcher.updater.MinecraftVersionManager;
 import org.apache.commons.io.FileUtils;
 import org.apache.commons.io.filefilter.FileFilterUtils;
 import org.apache.commons.io.filefilter.IOFileFilter;
@@ -39,6 +47,12 @@ import java.net.InetSocketAddress;
 import java.net.PasswordAuthentication;
 import java.net.Proxy;
 import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipFile;
 
@@ -48,6 +62,17 @@ import static net.minecraft.launcher.LauncherConstants.JVM_ARGUMENTS_DEFAULT;
 
 public class MinecraftGameRunner extends AbstractGameRunner implements GameProcessRunnable {
     private static final String CRASH_IDENTIFIER_MAGIC = "#@!@#";
+    private static final int RECONSTRUCT_THREADS = 8;
+    private static final long RECONSTRUCT_PROGRESS_INTERVAL = 50L;
+    private static final long MAINTENANCE_DELAY = 120L;
+    private static final ThreadPoolExecutor RECONSTRUCT_EXECUTOR;
+
+    static {
+        final int threads = Math.max(1, Math.min(RECONSTRUCT_THREADS, Runtime.getRuntime().availableProcessors()));
+        RECONSTRUCT_EXECUTOR = new ExceptionalThreadPoolExecutor(threads, threads, 30L, TimeUnit.SECONDS);
+        RECONSTRUCT_EXECUTOR.allowCoreThreadTimeOut(true);
+    }
+
     private final Gson gson;
     private final DateTypeAdapter dateAdapter;
     private final Launcher minecraftLauncher;
@@ -92,8 +117,19 @@ public class MinecraftGameRunner extends AbstractGameRunner implements GameProce
         return this.minecraftLauncher.getLauncher();
     }
 
+    @Override
+    protected long getDownloadRateLimit() {
+        final Profile profile = this.minecraftLauncher.getProfileManager().getSelectedProfile();
+        if (profile == null || profile.getDownloadRateLimit() == null) {
+            return 0L;
+        }
+        return profile.getDownloadRateLimit() * 1024L;
+    }
+
     @Override
     protected void downloadRequiredFiles(final VersionSyncInfo syncInfo) {
+        this.minecraftLauncher.getMaintenanceScheduler().cancel();
+        this.minecraftLauncher.getVersionPrefetcher().cancel();
         this.migrateOldAssets();
         super.downloadRequiredFiles(syncInfo);
     }
@@ -101,6 +137,7 @@ public class MinecraftGameRunner extends AbstractGameRunner implements GameProce
     @Override
     protected void launchGame() throws IOException {
         MinecraftGameRunner.LOGGER.info("Launching game");
+        ((MinecraftVersionManager) this.getLauncher().getVersionManager()).invalidateVersionCache();
         this.selectedProfile = this.minecraftLauncher.getProfileManager().getSelectedProfile();
         this.auth = this.minecraftLauncher.getProfileManager().getAuthDatabase().getByUUID(this.minecraftLauncher.getProfileManager().getSelectedUser());
         if (this.getVersion() == null) {
@@ -201,22 +238,29 @@ public class MinecraftGameRunner extends AbstractGameRunner implements GameProce
             this.setStatus(GameInstanceStatus.IDLE);
             return;
         }
-        this.minecraftLauncher.performCleanups();
+        this.minecraftLauncher.getMaintenanceScheduler().schedule(MAINTENANCE_DELAY, TimeUnit.SECONDS);
     }
 
     private CompleteMinecraftVersion getVersion() {
         return (CompleteMinecraftVersion) this.version;
     }
 
+    private AssetIndexCache getAssetIndexCache() {
+        return ((MinecraftVersionManager) this.getLauncher().getVersionManager()).getAssetIndexCache();
+    }
+
     private File getAssetObject() throws IOException {
         final File assetsDir = new File(this.getLauncher().getWorkingDirectory(), "assets");
         final File indexDir = new File(assetsDir, "indexes");
         final File objectsDir = new File(assetsDir, "objects");
         final String assetVersion = this.getVersion().getAssetIndex().getId();
         final File indexFile = new File(indexDir, assetVersion + ".json");
-        final AssetIndex index = this.gson.fromJson(FileUtils.readFileToString(indexFile, UTF_8), AssetIndex.class);
-        final String hash = index.getFileMap().get(IMAGE_MACOS_FAVICON).getHash();
-        return new File(objectsDir, hash.substring(0, 2) + "/" + hash);
+        final CompactAssetIndex index = this.getAssetIndexCache().get(indexFile);
+        final int entry = index.indexOf(IMAGE_MACOS_FAVICON);
+        if (entry < 0) {
+            throw new FileNotFoundException("Asset index " + assetVersion + " has no " + IMAGE_MACOS_FAVICON);
+        }
+        return new File(objectsDir, index.getPathFromHash(entry));
     }
 
     private File reconstructAssets() throws IOException {
@@ -230,14 +274,19 @@ public class MinecraftGameRunner extends AbstractGameRunner implements GameProce
             MinecraftGameRunner.LOGGER.warn("No assets index file " + virtualRoot + "; can't reconstruct assets");
             return virtualRoot;
         }
-        final AssetIndex index = this.gson.fromJson(FileUtils.readFileToString(indexFile, UTF_8), AssetIndex.class);
+        final CompactAssetIndex index = this.getAssetIndexCache().get(indexFile);
         if (index.isVirtual()) {
-            MinecraftGameRunner.LOGGER.info("Reconstructing virtual assets folder at " + virtualRoot);
-            for (final Map.Entry<String, AssetIndex.AssetObject> entry : index.getFileMap().entrySet()) {
-                final File target = new File(virtualRoot, entry.getKey());
-                final File original = new File(new File(objectDir, entry.getValue().getHash().substring(0, 2)), entry.getValue().getHash());
-                if (!target.isFile()) {
-                    FileUtils.copyFile(original, target, false);
+            final File manifestFile = new File(virtualRoot, ".manifest");
+            final String indexHash = this.getIndexHash(indexFile);
+            if (this.isReconstructed(manifestFile, indexHash, index, virtualRoot)) {
+                MinecraftGameRunner.LOGGER.info("Virtual assets folder at " + virtualRoot + " is already up to date");
+            } else {
+                MinecraftGameRunner.LOGGER.info("Reconstructing virtual assets folder at " + virtualRoot);
+                if (this.materializeVirtualAssets(index, objectDir, virtualRoot)) {
+                    final ReconstructionManifest manifest = new ReconstructionManifest();
+                    manifest.indexHash = indexHash;
+                    manifest.entries = index.size();
+                    FileUtils.writeStringToFile(manifestFile, this.gson.toJson(manifest), UTF_8);
                 }
             }
             FileUtils.writeStringToFile(new File(virtualRoot, ".lastused"), this.dateAdapter.serializeToString(new Date()), UTF_8);
@@ -245,6 +294,88 @@ public class MinecraftGameRunner extends AbstractGameRunner implements GameProce
         return virtualRoot;
     }
 
+    private String getIndexHash(final File indexFile) throws IOException {
+        final HashIndex hashIndex = ((MinecraftVersionManager) this.getLauncher().getVersionManager()).getHashIndex();
+        if (hashIndex != null) {
+            final String digest = hashIndex.getDigest(indexFile, "SHA-1", 40);
+            if (digest != null) {
+                return digest;
+            }
+        }
+        return DigestEngine.digest(indexFile, "SHA-1");
+    }
+
+    private boolean isReconstructed(final File manifestFile, final String indexHash, final CompactAssetIndex index, final File virtualRoot) {
+        if (!manifestFile.isFile()) {
+            return false;
+        }
+        try {
+            final ReconstructionManifest manifest = this.gson.fromJson(FileUtils.readFileToString(manifestFile, UTF_8), ReconstructionManifest.class);
+            if (manifest == null || !indexHash.equalsIgnoreCase(manifest.indexHash) || manifest.entries != index.size()) {
+                return false;
+            }
+        } catch (IOException | JsonParseException e) {
+            return false;
+        }
+        for (int entry = 0; entry < index.size(); ++entry) {
+            final File target = new File(virtualRoot, index.getName(entry));
+            if (!target.isFile() || target.length() != index.getSize(entry)) {
+                MinecraftGameRunner.LOGGER.info("Virtual asset " + target + " is missing or changed");
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean materializeVirtualAssets(final CompactAssetIndex index, final File objectDir, final File virtualRoot) throws IOException {
+        final int total = index.size();
+        final int threads = RECONSTRUCT_EXECUTOR.getMaximumPoolSize();
+        final AtomicInteger completed = new AtomicInteger();
+        final AtomicInteger failures = new AtomicInteger();
+        final List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < threads; ++i) {
+            final int first = i;
+            futures.add(RECONSTRUCT_EXECUTOR.submit(() -> {
+                for (int entry = first; entry < total; entry += threads) {
+                    final File target = new File(virtualRoot, index.getName(entry));
+                    if (!target.isFile() || target.length() != index.getSize(entry)) {
+                        try {
+                            ObjectStore.materialize(new File(objectDir, index.getPathFromHash(entry)), target);
+                        } catch (IOException e) {
+                            failures.incrementAndGet();
+                            MinecraftGameRunner.LOGGER.warn("Couldn't reconstruct " + target, e);
+                        }
+                    }
+                    completed.incrementAndGet();
+                }
+            }));
+        }
+        try {
+            for (final Future<?> future : futures) {
+                while (true) {
+                    try {
+                        future.get(RECONSTRUCT_PROGRESS_INTERVAL, TimeUnit.MILLISECONDS);
+                        break;
+                    } catch (TimeoutException e) {
+                        this.getLauncher().getUserInterface().setDownloadProgress(new DownloadProgress(completed.get(), total, "Reconstructing assets"));
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted whilst reconstructing assets");
+        } catch (ExecutionException e) {
+            throw new IOException("Couldn't reconstruct assets", e.getCause());
+        } finally {
+            this.getLauncher().getUserInterface().hideDownloadProgress();
+        }
+        if (failures.get() > 0) {
+            MinecraftGameRunner.LOGGER.warn("Couldn't reconstruct " + failures.get() + " of " + total + " virtual assets");
+            return false;
+        }
+        return true;
+    }
+
     private String[] getMinecraftArguments(final CompleteMinecraftVersion version, final Profile selectedProfile, final File gameDirectory, final File assetsDirectory, final UserAuthentication authentication) {
         if (version.getMinecraftArguments() == null) {
             MinecraftGameRunner.LOGGER.error("Can't run version, missing minecraftArguments");
@@ -295,8 +426,10 @@ public class MinecraftGameRunner extends AbstractGameRunner implements GameProce
             return;
         }
         final IOFileFilter migratableFilter = FileFilterUtils.notFileFilter(FileFilterUtils.or(FileFilterUtils.nameFileFilter("indexes"), FileFilterUtils.nameFileFilter("objects"), FileFilterUtils.nameFileFilter("virtual"), FileFilterUtils.nameFileFilter("skins")));
-        for (final File file : (TreeSet<File>) new TreeSet(FileUtils.listFiles(sourceDir, TrueFileFilter.TRUE, migratableFilter))) {
-            final String hash = Downloadable.getDigest(file, "SHA-1", 40);
+        final Map<File, String> hashes = DigestEngine.digestAll(new TreeSet<>(FileUtils.listFiles(sourceDir, TrueFileFilter.TRUE, migratableFilter)), "SHA-1");
+        for (final Map.Entry<File, String> entry : hashes.entrySet()) {
+            final File file = entry.getKey();
+            final String hash = entry.getValue();
             if (hash != null) {
                 final File destinationFile = new File(objectsDir, hash.substring(0, 2) + "/" + hash);
                 if (!destinationFile.exists()) {
@@ -451,4 +584,9 @@ public class MinecraftGameRunner extends AbstractGameRunner implements GameProce
     public Profile getSelectedProfile() {
         return this.selectedProfile;
     }
+
+    private static class ReconstructionManifest {
+        private String indexHash;
+        private int entries;
+    }
 }
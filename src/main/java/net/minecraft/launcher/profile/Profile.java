@@ -24,6 +24,7 @@ public class Profile implements Comparable<Profile> {
     private String playerUUID;
     private Boolean useHopperCrashService;
     private LauncherVisibilityRule launcherVisibilityOnGameClose;
+    private Integer downloadRateLimit;
 
     public Profile() {
     }
@@ -39,6 +40,7 @@ public class Profile implements Comparable<Profile> {
         this.allowedReleaseTypes = ((copy.allowedReleaseTypes == null) ? null : Sets.newHashSet(copy.allowedReleaseTypes));
         this.useHopperCrashService = copy.useHopperCrashService;
         this.launcherVisibilityOnGameClose = copy.launcherVisibilityOnGameClose;
+        this.downloadRateLimit = copy.downloadRateLimit;
     }
 
     public Profile(final String name) {
@@ -127,6 +129,14 @@ public class Profile implements Comparable<Profile> {
         this.launcherVisibilityOnGameClose = launcherVisibilityOnGameClose;
     }
 
+    public Integer getDownloadRateLimit() {
+        return this.downloadRateLimit;
+    }
+
+    public void setDownloadRateLimit(final Integer downloadRateLimit) {
+        this.downloadRateLimit = downloadRateLimit;
+    }
+
     @Override
     public int compareTo(final Profile o) {
         if (o == null) {
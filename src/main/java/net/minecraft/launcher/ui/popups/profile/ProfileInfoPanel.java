@@ -19,6 +19,8 @@ class ProfileInfoPanel extends JPanel {
     private final JCheckBox resolutionCustom;
     private final JTextField resolutionWidth;
     private final JTextField resolutionHeight;
+    private final JCheckBox downloadLimitCustom;
+    private final JTextField downloadLimitField;
     private final JCheckBox useHopper;
     private final JCheckBox launcherVisibilityCustom;
     private final JComboBox launcherVisibilityOption;
@@ -30,6 +32,8 @@ class ProfileInfoPanel extends JPanel {
         this.resolutionCustom = new JCheckBox("Resolution:");
         this.resolutionWidth = new JTextField();
         this.resolutionHeight = new JTextField();
+        this.downloadLimitCustom = new JCheckBox("Download Limit (KB/s):");
+        this.downloadLimitField = new JTextField();
         this.useHopper = new JCheckBox("Automatically ask Mojang for assistance with fixing crashes");
         this.launcherVisibilityCustom = new JCheckBox("Launcher Visibility:");
         this.launcherVisibilityOption = new JComboBox();
@@ -76,6 +80,13 @@ class ProfileInfoPanel extends JPanel {
         constraints.weightx = 0.0;
         constraints.fill = NONE;
         ++constraints.gridy;
+        this.add(this.downloadLimitCustom, constraints);
+        constraints.fill = HORIZONTAL;
+        constraints.weightx = 1.0;
+        this.add(this.downloadLimitField, constraints);
+        constraints.weightx = 0.0;
+        constraints.fill = NONE;
+        ++constraints.gridy;
         constraints.fill = HORIZONTAL;
         constraints.weightx = 1.0;
         constraints.gridwidth = 0;
@@ -115,6 +126,10 @@ class ProfileInfoPanel extends JPanel {
         this.resolutionWidth.setText(String.valueOf(resolution.getWidth()));
         this.resolutionHeight.setText(String.valueOf(resolution.getHeight()));
         this.updateResolutionState();
+        final Integer downloadLimit = this.editor.getProfile().getDownloadRateLimit();
+        this.downloadLimitCustom.setSelected(downloadLimit != null);
+        this.downloadLimitField.setText((downloadLimit == null) ? "" : String.valueOf(downloadLimit));
+        this.updateDownloadLimitState();
         this.useHopper.setSelected(this.editor.getProfile().getUseHopperCrashService());
         final LauncherVisibilityRule visibility = this.editor.getProfile().getLauncherVisibilityOnGameClose();
         if (visibility != null) {
@@ -180,6 +195,23 @@ class ProfileInfoPanel extends JPanel {
         };
         this.resolutionWidth.getDocument().addDocumentListener(resolutionListener);
         this.resolutionHeight.getDocument().addDocumentListener(resolutionListener);
+        this.downloadLimitCustom.addItemListener(e -> ProfileInfoPanel.this.updateDownloadLimitState());
+        this.downloadLimitField.getDocument().addDocumentListener(new DocumentListener() {
+            @Override
+            public void insertUpdate(final DocumentEvent e) {
+                ProfileInfoPanel.this.updateDownloadLimit();
+            }
+
+            @Override
+            public void removeUpdate(final DocumentEvent e) {
+                ProfileInfoPanel.this.updateDownloadLimit();
+            }
+
+            @Override
+            public void changedUpdate(final DocumentEvent e) {
+                ProfileInfoPanel.this.updateDownloadLimit();
+            }
+        });
         this.useHopper.addItemListener(e -> ProfileInfoPanel.this.updateHopper());
         this.launcherVisibilityCustom.addItemListener(e -> ProfileInfoPanel.this.updateLauncherVisibilityState());
         this.launcherVisibilityOption.addItemListener(e -> ProfileInfoPanel.this.updateLauncherVisibilitySelection());
@@ -250,6 +282,28 @@ class ProfileInfoPanel extends JPanel {
         }
     }
 
+    private void updateDownloadLimitState() {
+        if (this.downloadLimitCustom.isSelected()) {
+            this.downloadLimitField.setEnabled(true);
+            this.updateDownloadLimit();
+        } else {
+            this.downloadLimitField.setEnabled(false);
+            this.editor.getProfile().setDownloadRateLimit(null);
+        }
+    }
+
+    private void updateDownloadLimit() {
+        if (!this.downloadLimitCustom.isSelected()) {
+            return;
+        }
+        try {
+            final int limit = Integer.parseInt(this.downloadLimitField.getText());
+            this.editor.getProfile().setDownloadRateLimit((limit > 0) ? limit : null);
+        } catch (NumberFormatException ignored) {
+            this.editor.getProfile().setDownloadRateLimit(null);
+        }
+    }
+
     private void updateGameDir() {
         final File file = new File(this.gameDirField.getText());
         this.editor.getProfile().setGameDir(file);
@@ -1,7 +1,12 @@
 package net.minecraft.launcher.updater;
 
+import com.mojang.launcher.versions.SnapshotIO;
 import net.minecraft.launcher.LauncherConstants;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
 import static net.minecraft.launcher.LauncherConstants.URL_JAR_FALLBACK;
 
 public class AssetIndexInfo extends DownloadInfo {
@@ -20,6 +25,21 @@ public class AssetIndexInfo extends DownloadInfo {
         this.known = false;
     }
 
+    AssetIndexInfo(final DataInput in) throws IOException {
+        super(in);
+        this.totalSize = in.readLong();
+        this.id = SnapshotIO.readString(in);
+        this.known = in.readBoolean();
+    }
+
+    @Override
+    void write(final DataOutput out) throws IOException {
+        super.write(out);
+        out.writeLong(this.totalSize);
+        SnapshotIO.writeString(out, this.id);
+        out.writeBoolean(this.known);
+    }
+
     public long getTotalSize() {
         return this.totalSize;
     }
@@ -10,7 +10,11 @@ import com.mojang.launcher.updater.download.Downloadable;
 import com.mojang.launcher.versions.CompatibilityRule;
 import com.mojang.launcher.versions.CompleteVersion;
 import com.mojang.launcher.versions.ReleaseType;
+import com.mojang.launcher.versions.SnapshotIO;
+import net.minecraft.launcher.game.MinecraftReleaseType;
 
+import java.io.DataInput;
+import java.io.DataOutput;
 import java.io.File;
 import java.io.IOException;
 import java.net.MalformedURLException;
@@ -71,6 +75,67 @@ public class CompleteMinecraftVersion implements CompleteVersion {
         }
     }
 
+    CompleteMinecraftVersion(final DataInput in) throws IOException {
+        this.synced = false;
+        this.inheritsFrom = SnapshotIO.readString(in);
+        this.id = SnapshotIO.readString(in);
+        this.time = SnapshotIO.readDate(in);
+        this.releaseTime = SnapshotIO.readDate(in);
+        final String type = SnapshotIO.readString(in);
+        this.type = (type == null) ? null : MinecraftReleaseType.getByName(type);
+        this.minecraftArguments = SnapshotIO.readString(in);
+        this.libraries = SnapshotIO.readList(in, Library::new);
+        this.mainClass = SnapshotIO.readString(in);
+        this.minimumLauncherVersion = in.readInt();
+        this.incompatibilityReason = SnapshotIO.readString(in);
+        this.assets = SnapshotIO.readString(in);
+        this.compatibilityRules = SnapshotIO.readList(in, CompatibilityRule::new);
+        this.jar = SnapshotIO.readString(in);
+        final int downloads = in.readInt();
+        if (downloads >= 0) {
+            this.downloads = new LinkedHashMap<>();
+            for (int i = 0; i < downloads; ++i) {
+                this.downloads.put(SnapshotIO.readEnum(in, DownloadType.class), in.readBoolean() ? new DownloadInfo(in) : null);
+            }
+        }
+        if (in.readBoolean()) {
+            this.assetIndex = new AssetIndexInfo(in);
+        }
+    }
+
+    void write(final DataOutput out) throws IOException {
+        if (this.savableVersion != null) {
+            throw new IllegalStateException("Cannot snapshot resolved version " + this.id);
+        }
+        SnapshotIO.writeString(out, this.inheritsFrom);
+        SnapshotIO.writeString(out, this.id);
+        SnapshotIO.writeDate(out, this.time);
+        SnapshotIO.writeDate(out, this.releaseTime);
+        SnapshotIO.writeString(out, (this.type == null) ? null : this.type.getName());
+        SnapshotIO.writeString(out, this.minecraftArguments);
+        SnapshotIO.writeList(out, this.libraries, (output, library) -> library.write(output));
+        SnapshotIO.writeString(out, this.mainClass);
+        out.writeInt(this.minimumLauncherVersion);
+        SnapshotIO.writeString(out, this.incompatibilityReason);
+        SnapshotIO.writeString(out, this.assets);
+        SnapshotIO.writeList(out, this.compatibilityRules, (output, rule) -> rule.write(output));
+        SnapshotIO.writeString(out, this.jar);
+        out.writeInt((this.downloads == null) ? -1 : this.downloads.size());
+        if (this.downloads != null) {
+            for (final Map.Entry<DownloadType, DownloadInfo> entry : this.downloads.entrySet()) {
+                SnapshotIO.writeEnum(out, entry.getKey());
+                out.writeBoolean(entry.getValue() != null);
+                if (entry.getValue() != null) {
+                    entry.getValue().write(out);
+                }
+            }
+        }
+        out.writeBoolean(this.assetIndex != null);
+        if (this.assetIndex != null) {
+            this.assetIndex.write(out);
+        }
+    }
+
     @Override
     public String getId() {
         return this.id;
@@ -1,5 +1,10 @@
 package net.minecraft.launcher.updater;
 
+import com.mojang.launcher.versions.SnapshotIO;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
 import java.net.URL;
 
 public class DownloadInfo {
@@ -16,6 +21,19 @@ public class DownloadInfo {
         this.size = other.size;
     }
 
+    DownloadInfo(final DataInput in) throws IOException {
+        final String url = SnapshotIO.readString(in);
+        this.url = (url == null) ? null : new URL(url);
+        this.sha1 = SnapshotIO.readString(in);
+        this.size = in.readInt();
+    }
+
+    void write(final DataOutput out) throws IOException {
+        SnapshotIO.writeString(out, (this.url == null) ? null : this.url.toString());
+        SnapshotIO.writeString(out, this.sha1);
+        out.writeInt(this.size);
+    }
+
     public URL getUrl() {
         return this.url;
     }
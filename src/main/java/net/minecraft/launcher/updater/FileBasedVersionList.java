@@ -13,7 +13,9 @@ import static java.nio.charset.StandardCharsets.UTF_8;
 
 public abstract class FileBasedVersionList extends VersionList {
     String getContent(final String path) throws IOException {
-        return IOUtils.toString(this.getFileInputStream(path), UTF_8).replaceAll("\\r\\n", "\r").replaceAll("\\r", "\n");
+        try (final InputStream inputStream = this.getFileInputStream(path)) {
+            return IOUtils.toString(inputStream, UTF_8).replaceAll("\\r\\n", "\r").replaceAll("\\r", "\n");
+        }
     }
 
     protected abstract InputStream getFileInputStream(final String p0) throws FileNotFoundException;
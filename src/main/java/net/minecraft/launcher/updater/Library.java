@@ -5,10 +5,14 @@ import com.mojang.launcher.updater.download.ChecksummedDownloadable;
 import com.mojang.launcher.updater.download.Downloadable;
 import com.mojang.launcher.versions.CompatibilityRule;
 import com.mojang.launcher.versions.ExtractRules;
+import com.mojang.launcher.versions.SnapshotIO;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.text.StrSubstitutor;
 
+import java.io.DataInput;
+import java.io.DataOutput;
 import java.io.File;
+import java.io.IOException;
 import java.net.MalformedURLException;
 import java.net.Proxy;
 import java.net.URL;
@@ -63,6 +67,46 @@ public class Library {
         }
     }
 
+    Library(final DataInput in) throws IOException {
+        this.name = SnapshotIO.readString(in);
+        this.rules = SnapshotIO.readList(in, CompatibilityRule::new);
+        final int natives = in.readInt();
+        if (natives >= 0) {
+            this.natives = new LinkedHashMap<>();
+            for (int i = 0; i < natives; ++i) {
+                this.natives.put(SnapshotIO.readEnum(in, OperatingSystem.class), SnapshotIO.readString(in));
+            }
+        }
+        if (in.readBoolean()) {
+            this.extract = new ExtractRules(in);
+        }
+        this.url = SnapshotIO.readString(in);
+        if (in.readBoolean()) {
+            this.downloads = new LibraryDownloadInfo(in);
+        }
+    }
+
+    void write(final DataOutput out) throws IOException {
+        SnapshotIO.writeString(out, this.name);
+        SnapshotIO.writeList(out, this.rules, (output, rule) -> rule.write(output));
+        out.writeInt((this.natives == null) ? -1 : this.natives.size());
+        if (this.natives != null) {
+            for (final Map.Entry<OperatingSystem, String> entry : this.natives.entrySet()) {
+                SnapshotIO.writeEnum(out, entry.getKey());
+                SnapshotIO.writeString(out, entry.getValue());
+            }
+        }
+        out.writeBoolean(this.extract != null);
+        if (this.extract != null) {
+            this.extract.write(out);
+        }
+        SnapshotIO.writeString(out, this.url);
+        out.writeBoolean(this.downloads != null);
+        if (this.downloads != null) {
+            this.downloads.write(out);
+        }
+    }
+
     public String getName() {
         return this.name;
     }
@@ -1,5 +1,10 @@
 package net.minecraft.launcher.updater;
 
+import com.mojang.launcher.versions.SnapshotIO;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
 import java.util.LinkedHashMap;
 import java.util.Map;
 
@@ -20,6 +25,36 @@ class LibraryDownloadInfo {
         }
     }
 
+    LibraryDownloadInfo(final DataInput in) throws IOException {
+        if (in.readBoolean()) {
+            this.artifact = new DownloadInfo(in);
+        }
+        final int classifiers = in.readInt();
+        if (classifiers >= 0) {
+            this.classifiers = new LinkedHashMap<>();
+            for (int i = 0; i < classifiers; ++i) {
+                this.classifiers.put(SnapshotIO.readString(in), in.readBoolean() ? new DownloadInfo(in) : null);
+            }
+        }
+    }
+
+    void write(final DataOutput out) throws IOException {
+        out.writeBoolean(this.artifact != null);
+        if (this.artifact != null) {
+            this.artifact.write(out);
+        }
+        out.writeInt((this.classifiers == null) ? -1 : this.classifiers.size());
+        if (this.classifiers != null) {
+            for (final Map.Entry<String, DownloadInfo> entry : this.classifiers.entrySet()) {
+                SnapshotIO.writeString(out, entry.getKey());
+                out.writeBoolean(entry.getValue() != null);
+                if (entry.getValue() != null) {
+                    entry.getValue().write(out);
+                }
+            }
+        }
+    }
+
     public DownloadInfo getDownloadInfo(final String classifier) {
         if (classifier == null) {
             return this.artifact;
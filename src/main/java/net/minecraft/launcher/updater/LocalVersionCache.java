@@ -0,0 +1,228 @@
+package net.minecraft.launcher.updater;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import com.google.gson.reflect.TypeToken;
+import com.mojang.launcher.versions.CompleteVersion;
+import com.mojang.launcher.versions.SnapshotIO;
+import org.apache.commons.io.FileUtils;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+public class LocalVersionCache {
+    private static final Logger LOGGER = LogManager.getLogger();
+    private static final long RACY_WINDOW = 2000L;
+    private static final int SNAPSHOT_MAGIC = 0x4D435653;
+    private static final int SNAPSHOT_FORMAT = 1;
+
+    private final File cacheFile;
+    private final File snapshotFile;
+    private final Gson gson;
+    private final Map<String, Entry> entries;
+    private volatile boolean dirty;
+
+    public LocalVersionCache(final File cacheFile, final File snapshotFile) {
+        this.cacheFile = cacheFile;
+        this.snapshotFile = snapshotFile;
+        this.gson = new Gson();
+        this.entries = new ConcurrentHashMap<>();
+        this.load();
+        this.loadSnapshot();
+    }
+
+    private void load() {
+        if (!this.cacheFile.isFile()) {
+            return;
+        }
+        try {
+            final Map<String, Entry> saved = this.gson.fromJson(FileUtils.readFileToString(this.cacheFile, UTF_8), new TypeToken<HashMap<String, Entry>>() {
+            }.getType());
+            if (saved != null) {
+                this.entries.putAll(saved);
+            }
+        } catch (IOException | JsonParseException e) {
+            LocalVersionCache.LOGGER.warn("Couldn't read local version cache " + this.cacheFile + ", starting afresh", e);
+        }
+    }
+
+    private void loadSnapshot() {
+        if (!this.snapshotFile.isFile()) {
+            return;
+        }
+        final long start = System.nanoTime();
+        int loaded = 0;
+        try (final DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(this.snapshotFile)))) {
+            if (in.readInt() != SNAPSHOT_MAGIC || in.readInt() != SNAPSHOT_FORMAT) {
+                LocalVersionCache.LOGGER.info("Ignoring local version snapshot " + this.snapshotFile + " written in another format");
+                return;
+            }
+            final int count = in.readInt();
+            for (int i = 0; i < count; ++i) {
+                final String id = in.readUTF();
+                final Entry stat = new Entry();
+                stat.size = in.readLong();
+                stat.modified = in.readLong();
+                stat.fileKey = SnapshotIO.readString(in);
+                stat.verified = in.readLong();
+                final byte[] payload = new byte[in.readInt()];
+                in.readFully(payload);
+                final Entry known = this.entries.get(id);
+                if (known != null && !known.isRejected() && known.matches(stat) && known.verified == stat.verified) {
+                    known.version = new CompleteMinecraftVersion(new DataInputStream(new ByteArrayInputStream(payload)));
+                    ++loaded;
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            LocalVersionCache.LOGGER.warn("Couldn't read local version snapshot " + this.snapshotFile + ", parsing versions again", e);
+            for (final Entry entry : this.entries.values()) {
+                entry.version = null;
+            }
+            return;
+        }
+        LocalVersionCache.LOGGER.debug("Loaded " + loaded + " versions from snapshot in " + (System.nanoTime() - start) / 1000000L + " ms");
+    }
+
+    public synchronized void save() {
+        if (!this.dirty) {
+            return;
+        }
+        this.dirty = false;
+        try {
+            FileUtils.writeStringToFile(this.cacheFile, this.gson.toJson(new HashMap<>(this.entries)), UTF_8);
+            this.saveSnapshot();
+        } catch (IOException | RuntimeException e) {
+            this.dirty = true;
+            LocalVersionCache.LOGGER.warn("Couldn't save local version cache " + this.cacheFile, e);
+        }
+    }
+
+    private void saveSnapshot() throws IOException {
+        final Map<String, Entry> accepted = new HashMap<>();
+        for (final Map.Entry<String, Entry> entry : this.entries.entrySet()) {
+            if (entry.getValue().version instanceof CompleteMinecraftVersion) {
+                accepted.put(entry.getKey(), entry.getValue());
+            }
+        }
+        final File temporary = new File(this.snapshotFile.getPath() + ".tmp");
+        try (final DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temporary)))) {
+            out.writeInt(SNAPSHOT_MAGIC);
+            out.writeInt(SNAPSHOT_FORMAT);
+            out.writeInt(accepted.size());
+            final ByteArrayOutputStream payload = new ByteArrayOutputStream();
+            for (final Map.Entry<String, Entry> entry : accepted.entrySet()) {
+                final Entry stat = entry.getValue();
+                payload.reset();
+                ((CompleteMinecraftVersion) stat.version).write(new DataOutputStream(payload));
+                out.writeUTF(entry.getKey());
+                out.writeLong(stat.size);
+                out.writeLong(stat.modified);
+                SnapshotIO.writeString(out, stat.fileKey);
+                out.writeLong(stat.verified);
+                out.writeInt(payload.size());
+                payload.writeTo(out);
+            }
+        } catch (IOException | RuntimeException e) {
+            FileUtils.deleteQuietly(temporary);
+            throw e;
+        }
+        Files.move(temporary.toPath(), this.snapshotFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    public Entry lookup(final String id, final Path jsonFile) {
+        final Entry stat = Entry.stat(jsonFile);
+        if (stat == null) {
+            this.remove(id);
+            return null;
+        }
+        final Entry known = this.entries.get(id);
+        if (known != null && known.matches(stat) && known.isTrusted()) {
+            return known;
+        }
+        return stat;
+    }
+
+    public void accept(final String id, final Entry stat, final CompleteVersion version) {
+        stat.verified = System.currentTimeMillis();
+        stat.rejected = null;
+        stat.version = version;
+        this.entries.put(id, stat);
+        this.dirty = true;
+    }
+
+    public void reject(final String id, final Entry stat, final String reason) {
+        stat.verified = System.currentTimeMillis();
+        stat.rejected = reason;
+        stat.version = null;
+        this.entries.put(id, stat);
+        this.dirty = true;
+    }
+
+    public void remove(final String id) {
+        if (this.entries.remove(id) != null) {
+            this.dirty = true;
+        }
+    }
+
+    public void retainAll(final Collection<String> ids) {
+        if (this.entries.keySet().retainAll(ids)) {
+            this.dirty = true;
+        }
+    }
+
+    public static class Entry {
+        private long size;
+        private long modified;
+        private String fileKey;
+        private long verified;
+        private String rejected;
+        private transient CompleteVersion version;
+
+        static Entry stat(final Path file) {
+            try {
+                final BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+                if (!attributes.isRegularFile()) {
+                    return null;
+                }
+                final Entry entry = new Entry();
+                entry.size = attributes.size();
+                entry.modified = attributes.lastModifiedTime().toMillis();
+                entry.fileKey = (attributes.fileKey() == null) ? null : attributes.fileKey().toString();
+                return entry;
+            } catch (IOException e) {
+                return null;
+            }
+        }
+
+        boolean matches(final Entry other) {
+            return this.size == other.size && this.modified == other.modified && (this.fileKey == null ? other.fileKey == null : this.fileKey.equals(other.fileKey));
+        }
+
+        boolean isTrusted() {
+            return this.verified - this.modified > RACY_WINDOW;
+        }
+
+        public boolean isRejected() {
+            return this.rejected != null;
+        }
+
+        public String getRejectionReason() {
+            return this.rejected;
+        }
+
+        public CompleteVersion getVersion() {
+            return this.version;
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package net.minecraft.launcher.updater;
 
 import com.mojang.launcher.OperatingSystem;
+import com.mojang.launcher.updater.ExceptionalThreadPoolExecutor;
 import com.mojang.launcher.versions.CompleteVersion;
 import com.mojang.launcher.versions.Version;
 import net.minecraft.launcher.game.MinecraftReleaseType;
@@ -9,13 +10,29 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import java.io.*;
-import java.util.Set;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 public class LocalVersionList extends FileBasedVersionList {
     private static final Logger LOGGER = LogManager.getLogger();
+    private static final ThreadPoolExecutor EXECUTOR;
+
+    static {
+        final int threads = Math.max(2, Math.min(8, Runtime.getRuntime().availableProcessors()));
+        EXECUTOR = new ExceptionalThreadPoolExecutor(threads, threads, 30L, TimeUnit.SECONDS);
+        EXECUTOR.allowCoreThreadTimeOut(true);
+    }
 
     private final File baseDirectory;
     private final File baseVersionsDir;
+    private final LocalVersionCache cache;
 
     public LocalVersionList(final File baseDirectory) {
         if (baseDirectory == null || !baseDirectory.isDirectory()) {
@@ -29,6 +46,7 @@ public class LocalVersionList extends FileBasedVersionList {
                 LOGGER.error("Unable to create directories");
             }
         }
+        this.cache = new LocalVersionCache(new File(this.baseDirectory, "launcher_version_cache.json"), new File(this.baseDirectory, "launcher_version_cache.bin"));
     }
 
     @Override
@@ -38,38 +56,77 @@ public class LocalVersionList extends FileBasedVersionList {
 
     @Override
     public void refreshVersions() throws IOException {
-        this.clearCache();
-        final File[] files = this.baseVersionsDir.listFiles();
-        if (files == null) {
-            return;
+        final long start = System.nanoTime();
+        final SnapshotBuilder builder = new SnapshotBuilder();
+        final List<String> ids = new ArrayList<>();
+        final List<Future<CompleteVersion>> scans = new ArrayList<>();
+        try (final DirectoryStream<Path> stream = Files.newDirectoryStream(this.baseVersionsDir.toPath())) {
+            for (final Path directory : stream) {
+                final String id = directory.getFileName().toString();
+                ids.add(id);
+                scans.add(EXECUTOR.submit(() -> this.loadVersion(id, directory.resolve(id + ".json"))));
+            }
+        } catch (NoSuchFileException e) {
+            LocalVersionList.LOGGER.debug("No local versions directory " + this.baseVersionsDir);
         }
-        for (final File directory : files) {
-            final String id = directory.getName();
-            final File jsonFile = new File(directory, id + ".json");
-            if (directory.isDirectory() && jsonFile.exists()) {
-                try {
-                    final String path = "versions/" + id + "/" + id + ".json";
-                    final CompleteVersion version = this.gson.fromJson(this.getContent(path), CompleteMinecraftVersion.class);
-                    if (version.getType() == null) {
-                        LocalVersionList.LOGGER.warn("Ignoring: " + path + "; it has an invalid version specified");
-                        return;
-                    }
-                    if (version.getId().equals(id)) {
-                        this.addVersion(version);
-                    } else {
-                        LocalVersionList.LOGGER.warn("Ignoring: " + path + "; it contains id: '" + version.getId() + "' expected '" + id + "'");
-                    }
-                } catch (RuntimeException ex) {
-                    LocalVersionList.LOGGER.error("Couldn't load local version " + jsonFile.getAbsolutePath(), ex);
+        for (int i = 0; i < scans.size(); ++i) {
+            try {
+                final CompleteVersion version = scans.get(i).get();
+                if (version != null) {
+                    builder.add(version);
                 }
+            } catch (ExecutionException e) {
+                LocalVersionList.LOGGER.error("Couldn't load local version " + ids.get(i), e.getCause());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted whilst loading local versions");
             }
         }
-        for (final Version version2 : this.getVersions()) {
+        for (final Version version2 : builder.getVersions()) {
             final MinecraftReleaseType type = (MinecraftReleaseType) version2.getType();
-            if (this.getLatestVersion(type) == null || this.getLatestVersion(type).getUpdatedTime().before(version2.getUpdatedTime())) {
-                this.setLatestVersion(version2);
+            if (builder.getLatest(type) == null || builder.getLatest(type).getUpdatedTime().before(version2.getUpdatedTime())) {
+                builder.setLatest(type, version2);
             }
         }
+        this.publish(builder);
+        this.cache.retainAll(ids);
+        this.cache.save();
+        LocalVersionList.LOGGER.debug("Loaded " + builder.getVersions().size() + " local versions from " + ids.size() + " directories in " + (System.nanoTime() - start) / 1000000L + " ms");
+    }
+
+    private CompleteVersion loadVersion(final String id, final Path jsonFile) throws IOException {
+        final LocalVersionCache.Entry entry = this.cache.lookup(id, jsonFile);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.isRejected()) {
+            LocalVersionList.LOGGER.debug("Ignoring unchanged " + jsonFile + "; " + entry.getRejectionReason());
+            return null;
+        }
+        if (entry.getVersion() != null) {
+            return entry.getVersion();
+        }
+        final String path = "versions/" + id + "/" + id + ".json";
+        final CompleteVersion version;
+        try {
+            version = this.gson.fromJson(this.getContent(path), CompleteMinecraftVersion.class);
+        } catch (RuntimeException ex) {
+            LocalVersionList.LOGGER.error("Couldn't load local version " + jsonFile.toAbsolutePath(), ex);
+            this.cache.reject(id, entry, "it couldn't be parsed");
+            return null;
+        }
+        if (version == null || version.getType() == null) {
+            LocalVersionList.LOGGER.warn("Ignoring: " + path + "; it has an invalid version specified");
+            this.cache.reject(id, entry, "it has an invalid version specified");
+            return null;
+        }
+        if (!id.equals(version.getId())) {
+            LocalVersionList.LOGGER.warn("Ignoring: " + path + "; it contains id: '" + version.getId() + "' expected '" + id + "'");
+            this.cache.reject(id, entry, "it contains id '" + version.getId() + "'");
+            return null;
+        }
+        this.cache.accept(id, entry, version);
+        return version;
     }
 
     public void saveVersion(final CompleteVersion version) throws IOException {
@@ -3,6 +3,7 @@ package net.minecraft.launcher.updater;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
 import com.mojang.launcher.OperatingSystem;
 import com.mojang.launcher.events.RefreshedVersionsListener;
 import com.mojang.launcher.updater.ExceptionalThreadPoolExecutor;
@@ -12,32 +13,48 @@ import com.mojang.launcher.updater.VersionSyncInfo;
 import com.mojang.launcher.updater.download.DownloadJob;
 import com.mojang.launcher.updater.download.Downloadable;
 import com.mojang.launcher.updater.download.EtagDownloadable;
+import com.mojang.launcher.updater.download.HashIndex;
+import com.mojang.launcher.updater.download.HttpTransport;
+import com.mojang.launcher.updater.download.MirrorList;
+import com.mojang.launcher.updater.download.ObjectStore;
 import com.mojang.launcher.updater.download.assets.AssetDownloadable;
 import com.mojang.launcher.updater.download.assets.AssetIndex;
+import com.mojang.launcher.updater.download.assets.AssetIndexCache;
+import com.mojang.launcher.updater.download.assets.AssetIndexReader;
+import com.mojang.launcher.updater.download.assets.AssetReferenceTable;
+import com.mojang.launcher.updater.download.assets.CompactAssetIndex;
+import com.mojang.launcher.updater.download.assets.ObjectDirectorySnapshot;
 import com.mojang.launcher.versions.CompleteVersion;
 import com.mojang.launcher.versions.ReleaseType;
 import com.mojang.launcher.versions.Version;
 import net.minecraft.launcher.game.MinecraftReleaseType;
 import org.apache.commons.io.FileUtils;
 import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.input.TeeInputStream;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.MalformedURLException;
 import java.net.Proxy;
 import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
-import static java.nio.charset.StandardCharsets.UTF_8;
 import static net.minecraft.launcher.LauncherConstants.URL_JAR_FALLBACK;
 import static net.minecraft.launcher.LauncherConstants.URL_RESOURCE_BASE;
 
 public class MinecraftVersionManager implements VersionManager {
     private static final Logger LOGGER = LogManager.getLogger();
+    private static final int ASSET_INDEX_CACHE_SIZE = 8;
 
     private final VersionList localVersionList;
     private final VersionList remoteVersionList;
@@ -45,7 +62,14 @@ public class MinecraftVersionManager implements VersionManager {
     private final List<RefreshedVersionsListener> refreshedVersionsListeners;
     private final Object refreshLock;
     private final Gson gson;
-    private boolean isRefreshing;
+    private final ObjectStore objectStore;
+    private final HashIndex hashIndex;
+    private final MirrorList mirrorList;
+    private final AssetIndexCache assetIndexCache;
+    private final AssetReferenceTable assetReferences;
+    private final Map<String, CachedSyncInfo> syncInfoCache;
+    private final AtomicLong cacheGeneration;
+    private boolean keepCompressedAssets;
 
     public MinecraftVersionManager(final VersionList localVersionList, final VersionList remoteVersionList) {
         this.executorService = new ExceptionalThreadPoolExecutor(4, 8, 30L, TimeUnit.SECONDS);
@@ -54,28 +78,59 @@ public class MinecraftVersionManager implements VersionManager {
         this.gson = new Gson();
         this.localVersionList = localVersionList;
         this.remoteVersionList = remoteVersionList;
+        this.mirrorList = new MirrorList();
+        this.assetIndexCache = new AssetIndexCache(ASSET_INDEX_CACHE_SIZE);
+        this.syncInfoCache = new ConcurrentHashMap<>();
+        this.cacheGeneration = new AtomicLong();
+        if (localVersionList instanceof LocalVersionList) {
+            final File baseDirectory = ((LocalVersionList) localVersionList).getBaseDirectory();
+            this.objectStore = new ObjectStore(new File(baseDirectory, "objects"));
+            this.hashIndex = new HashIndex(new File(baseDirectory, "launcher_hash_index.json"));
+            this.assetReferences = new AssetReferenceTable(new File(baseDirectory, "assets"), this.assetIndexCache, this.hashIndex);
+        } else {
+            this.objectStore = null;
+            this.hashIndex = null;
+            this.assetReferences = null;
+        }
     }
 
     @Override
     public void refreshVersions() throws IOException {
+        boolean servedFromCache = false;
+        boolean modified = true;
         synchronized (this.refreshLock) {
-            this.isRefreshing = true;
-        }
-        try {
-            MinecraftVersionManager.LOGGER.info("Refreshing local version list...");
-            this.localVersionList.refreshVersions();
-            MinecraftVersionManager.LOGGER.info("Refreshing remote version list...");
-            this.remoteVersionList.refreshVersions();
-        } catch (IOException ex) {
-            synchronized (this.refreshLock) {
-                this.isRefreshing = false;
+            try {
+                MinecraftVersionManager.LOGGER.info("Refreshing local version list...");
+                this.localVersionList.refreshVersions();
+                this.invalidateVersionCache();
+                if (this.remoteVersionList instanceof RemoteVersionList && ((RemoteVersionList) this.remoteVersionList).loadCachedVersions()) {
+                    servedFromCache = true;
+                    this.fireRefreshedVersions();
+                }
+                MinecraftVersionManager.LOGGER.info("Refreshing remote version list...");
+                if (this.remoteVersionList instanceof RemoteVersionList) {
+                    modified = ((RemoteVersionList) this.remoteVersionList).refreshIfModified();
+                } else {
+                    this.remoteVersionList.refreshVersions();
+                }
+                if (modified) {
+                    this.invalidateVersionCache();
+                }
+            } catch (IOException ex) {
+                if (!servedFromCache) {
+                    throw ex;
+                }
+                MinecraftVersionManager.LOGGER.warn("Couldn't refresh remote version list, continuing with the cached manifest", ex);
+                return;
             }
-            throw ex;
         }
         MinecraftVersionManager.LOGGER.info("Refresh complete.");
-        synchronized (this.refreshLock) {
-            this.isRefreshing = false;
+        if (modified || !servedFromCache) {
+            this.fireRefreshedVersions();
         }
+    }
+
+    private void fireRefreshedVersions() {
         for (final RefreshedVersionsListener listener : Lists.newArrayList(this.refreshedVersionsListeners)) {
             listener.onVersionsRefreshed(this);
         }
@@ -88,18 +143,13 @@ public class MinecraftVersionManager implements VersionManager {
 
     @Override
     public List<VersionSyncInfo> getVersions(final VersionFilter<? extends ReleaseType> filter) {
-        synchronized (this.refreshLock) {
-            if (this.isRefreshing) {
-                return new ArrayList<>();
-            }
-        }
         final List<VersionSyncInfo> result = new ArrayList<>();
         final Map<String, VersionSyncInfo> lookup = new HashMap<>();
         final Map<MinecraftReleaseType, Integer> counts = Maps.newEnumMap(MinecraftReleaseType.class);
         for (final MinecraftReleaseType type : MinecraftReleaseType.values()) {
             counts.put(type, 0);
         }
-        for (final Version version : Lists.newArrayList(this.localVersionList.getVersions())) {
+        for (final Version version : this.localVersionList.getVersions()) {
             if (version.getType() != null) {
                 if (version.getUpdatedTime() == null) {
                     continue;
@@ -180,6 +230,23 @@ public class MinecraftVersionManager implements VersionManager {
 
     @Override
     public VersionSyncInfo getVersionSyncInfo(final Version localVersion, final Version remoteVersion) {
+        final String id = (localVersion != null) ? localVersion.getId() : ((remoteVersion != null) ? remoteVersion.getId() : null);
+        if (id == null) {
+            return this.createVersionSyncInfo(null, null);
+        }
+        final long generation = this.cacheGeneration.get();
+        final CachedSyncInfo cached = this.syncInfoCache.get(id);
+        if (cached != null && cached.generation == generation && cached.localVersion == localVersion && cached.remoteVersion == remoteVersion) {
+            return cached.syncInfo;
+        }
+        final VersionSyncInfo syncInfo = this.createVersionSyncInfo(localVersion, remoteVersion);
+        if (this.cacheGeneration.get() == generation) {
+            this.syncInfoCache.put(id, new CachedSyncInfo(generation, localVersion, remoteVersion, syncInfo));
+        }
+        return syncInfo;
+    }
+
+    private VersionSyncInfo createVersionSyncInfo(final Version localVersion, final Version remoteVersion) {
         boolean upToDate;
         final boolean installed = upToDate = (localVersion != null);
         CompleteMinecraftVersion resolved = null;
@@ -198,11 +265,15 @@ public class MinecraftVersionManager implements VersionManager {
         return new VersionSyncInfo(resolved, remoteVersion, installed, upToDate);
     }
 
+    public void invalidateVersionCache() {
+        this.cacheGeneration.incrementAndGet();
+        this.syncInfoCache.clear();
+    }
+
     @Override
     public List<VersionSyncInfo> getInstalledVersions() {
         final List<VersionSyncInfo> result = new ArrayList<>();
-        final Collection<Version> versions = Lists.newArrayList(this.localVersionList.getVersions());
-        for (final Version version : versions) {
+        for (final Version version : this.localVersionList.getVersions()) {
             if (version.getType() != null) {
                 if (version.getUpdatedTime() == null) {
                     continue;
@@ -257,16 +328,54 @@ public class MinecraftVersionManager implements VersionManager {
         final CompleteMinecraftVersion version = this.getLatestCompleteVersion(syncInfo);
         final File baseDirectory = ((LocalVersionList) this.localVersionList).getBaseDirectory();
         final Proxy proxy = ((RemoteVersionList) this.remoteVersionList).getProxy();
-        job.addDownloadables(version.getRequiredDownloadables(OperatingSystem.getCurrentPlatform(), proxy, baseDirectory, false));
+        final Set<Downloadable> libraries = version.getRequiredDownloadables(OperatingSystem.getCurrentPlatform(), proxy, baseDirectory, false);
+        for (final Downloadable library : libraries) {
+            this.prepareDownloadable(library);
+        }
+        job.addDownloadables(libraries);
         final String jarFile = "versions/" + version.getJar() + "/" + version.getJar() + ".jar";
         final DownloadInfo clientInfo = version.getDownloadURL(DownloadType.CLIENT);
         if (clientInfo == null) {
-            job.addDownloadables(new EtagDownloadable(proxy, new URL(URL_JAR_FALLBACK + jarFile), new File(baseDirectory, jarFile), false));
+            final Downloadable client = new EtagDownloadable(proxy, new URL(URL_JAR_FALLBACK + jarFile), new File(baseDirectory, jarFile), false);
+            client.setHashIndex(this.hashIndex);
+            job.addDownloadables(client);
         } else {
-            job.addDownloadables(new PreHashedDownloadable(proxy, clientInfo.getUrl(), new File(baseDirectory, jarFile), false, clientInfo.getSha1()));
+            final Downloadable client = new PreHashedDownloadable(proxy, clientInfo.getUrl(), new File(baseDirectory, jarFile), false, clientInfo.getSha1());
+            this.prepareDownloadable(client);
+            job.addDownloadables(client);
         }
     }
 
+    private void prepareDownloadable(final Downloadable downloadable) {
+        downloadable.setObjectStore(this.objectStore);
+        downloadable.setHashIndex(this.hashIndex);
+        downloadable.setMirrorList(this.mirrorList);
+    }
+
+    public ObjectStore getObjectStore() {
+        return this.objectStore;
+    }
+
+    public HashIndex getHashIndex() {
+        return this.hashIndex;
+    }
+
+    public MirrorList getMirrorList() {
+        return this.mirrorList;
+    }
+
+    public AssetIndexCache getAssetIndexCache() {
+        return this.assetIndexCache;
+    }
+
+    public void setKeepCompressedAssets(final boolean keepCompressedAssets) {
+        this.keepCompressedAssets = keepCompressedAssets;
+    }
+
+    public AssetReferenceTable getAssetReferences() {
+        return this.assetReferences;
+    }
+
     @Override
     public void downloadResources(final DownloadJob job, final CompleteVersion version) {
         final File baseDirectory = ((LocalVersionList) this.localVersionList).getBaseDirectory();
@@ -275,46 +384,108 @@ public class MinecraftVersionManager implements VersionManager {
 
     private Set<Downloadable> getResourceFiles(final Proxy proxy, final File baseDirectory, final CompleteMinecraftVersion version) {
         final Set<Downloadable> result = new HashSet<>();
-        InputStream inputStream = null;
         final File assets = new File(baseDirectory, "assets");
         final File objectsFolder = new File(assets, "objects");
         final File indexesFolder = new File(assets, "indexes");
         final long start = System.nanoTime();
         final AssetIndexInfo indexInfo = version.getAssetIndex();
         final File indexFile = new File(indexesFolder, indexInfo.getId() + ".json");
+        final File temporaryFile = new File(indexesFolder, indexInfo.getId() + ".json.tmp");
         try {
-            final URL indexUrl = indexInfo.getUrl();
-            inputStream = indexUrl.openConnection(proxy).getInputStream();
-            final String json = IOUtils.toString(inputStream, UTF_8);
-            FileUtils.writeStringToFile(indexFile, json, UTF_8);
-            final AssetIndex index = this.gson.fromJson(json, AssetIndex.class);
-            for (final Map.Entry<AssetIndex.AssetObject, String> entry : index.getUniqueObjects().entrySet()) {
-                final AssetIndex.AssetObject object = entry.getKey();
-                final String filename = object.getHash().substring(0, 2) + "/" + object.getHash();
-                final File file = new File(objectsFolder, filename);
-                if (!file.isFile() || FileUtils.sizeOf(file) != object.getSize()) {
-                    final Downloadable downloadable = new AssetDownloadable(proxy, entry.getValue(), object, URL_RESOURCE_BASE, objectsFolder);
-                    downloadable.setExpectedSize(object.getSize());
-                    result.add(downloadable);
+            final CompactAssetIndex base = (this.assetReferences != null) ? this.assetReferences.getSyncedIndex(indexInfo.getId()) : null;
+            final ObjectDirectorySnapshot snapshot = (base == null) ? ObjectDirectorySnapshot.scan(objectsFolder) : null;
+            final int[] unchanged = new int[1];
+            final CompactAssetIndex cached = this.getVerifiedAssetIndex(indexInfo, indexFile);
+            final CompactAssetIndex index;
+            if (cached != null) {
+                for (int entry = 0; entry < cached.size(); ++entry) {
+                    if (cached.isFirstWithHash(entry)) {
+                        if (base != null && base.containsHash(cached.getHash(entry))) {
+                            ++unchanged[0];
+                        } else {
+                            this.addAssetDownloadable(result, proxy, indexInfo.getId(), cached.getName(entry), cached.getAssetObject(entry), objectsFolder, snapshot);
+                        }
+                    }
+                }
+                index = cached;
+            } else {
+                final Set<String> seen = new HashSet<>();
+                final CompactAssetIndex.Builder builder = new CompactAssetIndex.Builder();
+                final HttpURLConnection connection = HttpTransport.openConnection(indexInfo.getUrl(), proxy);
+                final boolean virtual;
+                try (final InputStream inputStream = new TeeInputStream(connection.getInputStream(), FileUtils.openOutputStream(temporaryFile), true)) {
+                    virtual = AssetIndexReader.read(inputStream, (name, object) -> {
+                        builder.add(name, object);
+                        if (seen.add(object.getHash())) {
+                            if (base != null && base.containsHash(object.getHash())) {
+                                ++unchanged[0];
+                            } else {
+                                this.addAssetDownloadable(result, proxy, indexInfo.getId(), name, object, objectsFolder, snapshot);
+                            }
+                        }
+                    });
+                    IOUtils.skip(inputStream, Long.MAX_VALUE);
+                }
+                Files.move(temporaryFile.toPath(), indexFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+                index = builder.build(virtual);
+                this.assetIndexCache.put(indexFile, index);
+            }
+            if (base != null) {
+                MinecraftVersionManager.LOGGER.info("Asset index " + indexInfo.getId() + " against last synced index: " + (index.getUniqueObjectCount() - unchanged[0]) + " added, " + unchanged[0] + " unchanged, " + (base.getUniqueObjectCount() - unchanged[0]) + " removed");
+            }
+            if (this.assetReferences != null) {
+                this.assetReferences.retain(version.getId(), indexInfo.getId());
+                if (result.isEmpty()) {
+                    this.assetReferences.markSynced(indexInfo.getId());
                 }
+                this.assetReferences.save();
             }
             final long end = System.nanoTime();
             final long delta = end - start;
             MinecraftVersionManager.LOGGER.debug("Delta time to compare resources: " + delta / 1000000L + " ms ");
         } catch (Exception ex) {
+            FileUtils.deleteQuietly(temporaryFile);
+            this.assetIndexCache.invalidate(indexFile);
             MinecraftVersionManager.LOGGER.error("Couldn't download resources", ex);
-        } finally {
-            if (inputStream != null) {
-                try {
-                    inputStream.close();
-                } catch (IOException e) {
-                    LOGGER.warn("Unable to close input stream");
-                }
-            }
         }
         return result;
     }
 
+    private CompactAssetIndex getVerifiedAssetIndex(final AssetIndexInfo indexInfo, final File indexFile) {
+        if (!indexInfo.sizeAndHashKnown() || indexInfo.getSha1() == null || !indexFile.isFile() || this.hashIndex == null) {
+            return null;
+        }
+        if (!indexInfo.getSha1().equalsIgnoreCase(this.hashIndex.getDigest(indexFile, "SHA-1", 40))) {
+            return null;
+        }
+        try {
+            return this.assetIndexCache.get(indexFile);
+        } catch (IOException | JsonParseException e) {
+            MinecraftVersionManager.LOGGER.warn("Couldn't read cached asset index " + indexFile + ", downloading it again", e);
+            return null;
+        }
+    }
+
+    private void addAssetDownloadable(final Set<Downloadable> result, final Proxy proxy, final String indexId, final String name, final AssetIndex.AssetObject object, final File objectsFolder, final ObjectDirectorySnapshot snapshot) throws MalformedURLException {
+        final long localSize;
+        if (snapshot != null) {
+            localSize = snapshot.getSize(object.getHash());
+        } else {
+            final File file = new File(objectsFolder, object.getHash().substring(0, 2) + "/" + object.getHash());
+            localSize = file.isFile() ? file.length() : -1L;
+        }
+        if (localSize != object.getSize()) {
+            final AssetDownloadable downloadable = new AssetDownloadable(proxy, name, object, URL_RESOURCE_BASE, objectsFolder);
+            downloadable.setSnapshot(snapshot);
+            downloadable.setKeepCompressed(this.keepCompressedAssets);
+            downloadable.setExpectedSize(object.getSize());
+            downloadable.setHashIndex(this.hashIndex);
+            downloadable.setMirrorList(this.mirrorList);
+            downloadable.setReferences(this.assetReferences, indexId);
+            result.add(downloadable);
+        }
+    }
+
     @Override
     public ThreadPoolExecutor getExecutorService() {
         return this.executorService;
@@ -336,6 +507,7 @@ public class MinecraftVersionManager implements VersionManager {
         this.getLocalVersionList().removeVersion(syncInfo.getLocalVersion());
         this.getLocalVersionList().addVersion(remoteVersion);
         ((LocalVersionList) this.getLocalVersionList()).saveVersion(((CompleteMinecraftVersion) remoteVersion).getSavableVersion());
+        this.invalidateVersionCache();
         return this.getVersionSyncInfo(remoteVersion);
     }
 
@@ -352,6 +524,7 @@ public class MinecraftVersionManager implements VersionManager {
         if (localVersionList instanceof LocalVersionList) {
             ((LocalVersionList) localVersionList).saveVersion(version);
         }
+        this.invalidateVersionCache();
         MinecraftVersionManager.LOGGER.info("Installed " + version);
     }
 
@@ -360,7 +533,26 @@ public class MinecraftVersionManager implements VersionManager {
         final VersionList localVersionList = this.getLocalVersionList();
         if (localVersionList instanceof LocalVersionList) {
             localVersionList.uninstallVersion(version);
+            this.invalidateVersionCache();
+            if (this.assetReferences != null) {
+                this.assetReferences.release(version.getId());
+                this.assetReferences.save();
+            }
             MinecraftVersionManager.LOGGER.info("Uninstalled " + version);
         }
     }
+
+    private static class CachedSyncInfo {
+        private final long generation;
+        private final Version localVersion;
+        private final Version remoteVersion;
+        private final VersionSyncInfo syncInfo;
+
+        CachedSyncInfo(final long generation, final Version localVersion, final Version remoteVersion, final VersionSyncInfo syncInfo) {
+            this.generation = generation;
+            this.localVersion = localVersion;
+            this.remoteVersion = remoteVersion;
+            this.syncInfo = syncInfo;
+        }
+    }
 }
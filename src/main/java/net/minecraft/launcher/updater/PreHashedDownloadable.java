@@ -1,13 +1,11 @@
 package net.minecraft.launcher.updater;
 
 import com.mojang.launcher.updater.download.Downloadable;
-import com.mojang.launcher.updater.download.MonitoringInputStream;
+import com.mojang.launcher.updater.download.PartialDownload;
 import org.apache.commons.io.FileUtils;
 
 import java.io.File;
-import java.io.FileOutputStream;
 import java.io.IOException;
-import java.io.InputStream;
 import java.net.HttpURLConnection;
 import java.net.Proxy;
 import java.net.URL;
@@ -20,6 +18,12 @@ public class PreHashedDownloadable extends Downloadable {
         this.expectedHash = expectedHash;
     }
 
+    @Override
+    public URL getRequestUrl() {
+        final URL mirror = this.getMirrorUrl(this.expectedHash);
+        return (mirror != null) ? mirror : super.getRequestUrl();
+    }
+
     @Override
     public String download() throws IOException {
         ++this.numAttempts;
@@ -27,25 +31,44 @@ public class PreHashedDownloadable extends Downloadable {
         final File target = this.getTarget();
         String localHash;
         if (target.isFile()) {
-            localHash = Downloadable.getDigest(target, "SHA-1", 40);
+            localHash = this.getLocalDigest(target, "SHA-1", 40);
             if (this.expectedHash.equalsIgnoreCase(localHash)) {
+                if (this.getObjectStore() != null) {
+                    this.getObjectStore().ingest(this.expectedHash, target);
+                }
                 return "Local file matches hash, using that";
             }
             FileUtils.deleteQuietly(target);
         }
+        if (this.getObjectStore() != null && this.getObjectStore().materialize(this.expectedHash, target, this.getHashIndex())) {
+            this.recordDigest(target, "SHA-1", this.expectedHash);
+            return "Materialized from object store";
+        }
+        if (this.fetchFromMirror(this.expectedHash, target)) {
+            if (this.getObjectStore() != null) {
+                this.getObjectStore().ingest(this.expectedHash, target);
+            }
+            return "Downloaded from mirror and hash matched";
+        }
         try {
+            final PartialDownload partial = new PartialDownload(target, this.getUrl());
             final HttpURLConnection connection = this.makeConnection(this.getUrl());
+            partial.prepare(connection);
             final int status = connection.getResponseCode();
-            if (status == 200) {
-                this.updateExpectedSize(connection);
-                final InputStream inputStream = new MonitoringInputStream(connection.getInputStream(), this.getMonitor());
-                final FileOutputStream outputStream = new FileOutputStream(this.getTarget());
-                final String digest = Downloadable.copyAndDigest(inputStream, outputStream, "SHA", 40);
+            if (partial.accepts(status)) {
+                final String digest = this.copyToPartial(connection, partial, "SHA", 40);
                 if (this.expectedHash.equalsIgnoreCase(digest)) {
+                    partial.commit();
+                    this.recordDigest(target, "SHA-1", digest);
+                    if (this.getObjectStore() != null) {
+                        this.getObjectStore().ingest(this.expectedHash, target);
+                    }
                     return "Downloaded successfully and hash matched";
                 }
+                partial.discard();
                 throw new RuntimeException(String.format("Hash did not match downloaded file (Expected %s, downloaded %s)", this.expectedHash, digest));
             } else {
+                this.releaseConnection(connection);
                 if (this.getTarget().isFile()) {
                     return "Couldn't connect to server (responded with " + status + ") but have local file, assuming it's good";
                 }
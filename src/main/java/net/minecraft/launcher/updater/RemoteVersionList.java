@@ -1,26 +1,48 @@
 package net.minecraft.launcher.updater;
 
 import com.google.common.collect.Maps;
+import com.google.gson.JsonParseException;
 import com.mojang.launcher.Http;
 import com.mojang.launcher.OperatingSystem;
+import com.mojang.launcher.updater.download.HttpTransport;
 import com.mojang.launcher.versions.CompleteVersion;
 import com.mojang.launcher.versions.Version;
 import net.minecraft.launcher.game.MinecraftReleaseType;
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
 
+import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
 import java.net.Proxy;
 import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 
+import static java.nio.charset.StandardCharsets.UTF_8;
+
 public class RemoteVersionList extends VersionList {
+    private static final Logger LOGGER = LogManager.getLogger();
+
     private final URL manifestUrl;
     private final Proxy proxy;
+    private final File cacheFile;
+    private CachedManifest cached;
 
     public RemoteVersionList(final URL manifestUrl, final Proxy proxy) {
+        this(manifestUrl, proxy, null);
+    }
+
+    public RemoteVersionList(final URL manifestUrl, final Proxy proxy, final File cacheFile) {
         this.manifestUrl = manifestUrl;
         this.proxy = proxy;
+        this.cacheFile = cacheFile;
     }
 
     @Override
@@ -39,15 +61,83 @@ public class RemoteVersionList extends VersionList {
 
     @Override
     public void refreshVersions() throws IOException {
-        this.clearCache();
-        final RawVersionList versionList = this.gson.fromJson(this.getContent(this.manifestUrl), RawVersionList.class);
+        this.refreshIfModified();
+    }
+
+    public synchronized boolean loadCachedVersions() {
+        if (this.cacheFile == null || !this.cacheFile.isFile() || !this.getVersions().isEmpty()) {
+            return false;
+        }
+        try {
+            final CachedManifest manifest = this.gson.fromJson(FileUtils.readFileToString(this.cacheFile, UTF_8), CachedManifest.class);
+            if (manifest == null || manifest.content == null) {
+                return false;
+            }
+            this.apply(manifest.content);
+            this.cached = manifest;
+            RemoteVersionList.LOGGER.info("Loaded " + this.getVersions().size() + " versions from cached manifest " + this.cacheFile);
+            return true;
+        } catch (IOException | JsonParseException e) {
+            RemoteVersionList.LOGGER.warn("Couldn't read cached version manifest " + this.cacheFile, e);
+            return false;
+        }
+    }
+
+    public synchronized boolean refreshIfModified() throws IOException {
+        final HttpURLConnection connection = HttpTransport.openConnection(this.manifestUrl, this.proxy);
+        if (this.cached != null) {
+            if (this.cached.etag != null) {
+                connection.setRequestProperty("If-None-Match", this.cached.etag);
+            }
+            if (this.cached.lastModified != null) {
+                connection.setRequestProperty("If-Modified-Since", this.cached.lastModified);
+            }
+        }
+        final int status = connection.getResponseCode();
+        if (status == HttpURLConnection.HTTP_NOT_MODIFIED && this.cached != null) {
+            HttpTransport.release(connection);
+            RemoteVersionList.LOGGER.info("Version manifest not modified since it was cached");
+            if (this.getVersions().isEmpty()) {
+                this.apply(this.cached.content);
+            }
+            return false;
+        }
+        if (status / 100 != 2) {
+            HttpTransport.release(connection);
+            throw new IOException("Server responded with " + status + " for " + this.manifestUrl);
+        }
+        final String content;
+        try (final InputStream inputStream = connection.getInputStream()) {
+            content = IOUtils.toString(inputStream, UTF_8);
+        }
+        this.apply(content);
+        final CachedManifest manifest = new CachedManifest();
+        manifest.etag = connection.getHeaderField("ETag");
+        manifest.lastModified = connection.getHeaderField("Last-Modified");
+        manifest.content = content;
+        this.cached = manifest;
+        if (this.cacheFile != null) {
+            try {
+                final File temporary = new File(this.cacheFile.getPath() + ".tmp");
+                FileUtils.writeStringToFile(temporary, this.gson.toJson(manifest), UTF_8);
+                Files.move(temporary.toPath(), this.cacheFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            } catch (IOException e) {
+                RemoteVersionList.LOGGER.warn("Couldn't cache version manifest to " + this.cacheFile, e);
+            }
+        }
+        return true;
+    }
+
+    private void apply(final String content) {
+        final RawVersionList versionList = this.gson.fromJson(content, RawVersionList.class);
+        final SnapshotBuilder builder = new SnapshotBuilder();
         for (final Version version : versionList.getVersions()) {
-            this.versions.add(version);
-            this.versionsByName.put(version.getId(), version);
+            builder.add(version);
         }
         for (final MinecraftReleaseType type : MinecraftReleaseType.values()) {
-            this.latestVersions.put(type, this.versionsByName.get(versionList.getLatestVersions().get(type)));
+            builder.setLatest(type, builder.get(versionList.getLatestVersions().get(type)));
         }
+        this.publish(builder);
     }
 
     @Override
@@ -55,14 +145,16 @@ public class RemoteVersionList extends VersionList {
         return true;
     }
 
-    private String getContent(final URL url) throws IOException {
-        return Http.performGet(url, this.proxy);
-    }
-
     public Proxy getProxy() {
         return this.proxy;
     }
 
+    private static class CachedManifest {
+        private String etag;
+        private String lastModified;
+        private String content;
+    }
+
     private static class RawVersionList {
         private final List<PartialVersion> versions;
         private final Map<MinecraftReleaseType, String> latest;
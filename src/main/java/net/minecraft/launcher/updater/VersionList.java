@@ -18,14 +18,12 @@ import java.util.*;
 
 abstract class VersionList {
     final Gson gson;
-    final Map<String, Version> versionsByName;
-    final List<Version> versions;
-    final Map<MinecraftReleaseType, Version> latestVersions;
+    private final Object writeLock;
+    private volatile Snapshot snapshot;
 
     VersionList() {
-        this.versionsByName = new HashMap<>();
-        this.versions = new ArrayList<>();
-        this.latestVersions = Maps.newEnumMap(MinecraftReleaseType.class);
+        this.writeLock = new Object();
+        this.snapshot = new SnapshotBuilder().build();
         final GsonBuilder builder = new GsonBuilder();
         builder.registerTypeAdapterFactory(new LowerCaseEnumTypeAdapterFactory());
         builder.registerTypeAdapter(Date.class, new DateTypeAdapter());
@@ -36,37 +34,44 @@ abstract class VersionList {
     }
 
     public Collection<Version> getVersions() {
-        return this.versions;
+        return this.snapshot.versions;
     }
 
     Version getLatestVersion(final MinecraftReleaseType type) {
         if (type == null) {
             throw new IllegalArgumentException("Type cannot be null");
         }
-        return this.latestVersions.get(type);
+        return this.snapshot.latestVersions.get(type);
     }
 
     public Version getVersion(final String name) {
         if (name == null || name.length() == 0) {
             throw new IllegalArgumentException("Name cannot be null or empty");
         }
-        return this.versionsByName.get(name);
+        return this.snapshot.versionsByName.get(name);
     }
 
     public abstract CompleteMinecraftVersion getCompleteVersion(final Version p0) throws IOException;
 
+    void publish(final SnapshotBuilder builder) {
+        synchronized (this.writeLock) {
+            this.snapshot = builder.build();
+        }
+    }
+
     void replacePartialWithFull(final PartialVersion version, final CompleteVersion complete) {
-        Collections.replaceAll(this.versions, version, complete);
-        this.versionsByName.put(version.getId(), complete);
-        if (this.latestVersions.get(version.getType()) == version) {
-            this.latestVersions.put(version.getType(), complete);
+        synchronized (this.writeLock) {
+            if (this.snapshot.versionsByName.get(version.getId()) != version) {
+                return;
+            }
+            final SnapshotBuilder builder = new SnapshotBuilder(this.snapshot);
+            builder.replace(version, complete);
+            this.snapshot = builder.build();
         }
     }
 
     void clearCache() {
-        this.versionsByName.clear();
-        this.versions.clear();
-        this.latestVersions.clear();
+        this.publish(new SnapshotBuilder());
     }
 
     public abstract void refreshVersions() throws IOException;
@@ -75,11 +80,14 @@ abstract class VersionList {
         if (version.getId() == null) {
             throw new IllegalArgumentException("Cannot add blank version");
         }
-        if (this.getVersion(version.getId()) != null) {
-            throw new IllegalArgumentException("Version '" + version.getId() + "' is already tracked");
+        synchronized (this.writeLock) {
+            if (this.getVersion(version.getId()) != null) {
+                throw new IllegalArgumentException("Version '" + version.getId() + "' is already tracked");
+            }
+            final SnapshotBuilder builder = new SnapshotBuilder(this.snapshot);
+            builder.add(version);
+            this.snapshot = builder.build();
         }
-        this.versions.add(version);
-        this.versionsByName.put(version.getId(), version);
     }
 
     public void removeVersion(final String name) {
@@ -97,12 +105,10 @@ abstract class VersionList {
         if (version == null) {
             throw new IllegalArgumentException("Cannot remove null version");
         }
-        this.versions.remove(version);
-        this.versionsByName.remove(version.getId());
-        for (final MinecraftReleaseType type : MinecraftReleaseType.values()) {
-            if (this.getLatestVersion(type) == version) {
-                this.latestVersions.remove(type);
-            }
+        synchronized (this.writeLock) {
+            final SnapshotBuilder builder = new SnapshotBuilder(this.snapshot);
+            builder.remove(version);
+            this.snapshot = builder.build();
         }
     }
 
@@ -110,7 +116,11 @@ abstract class VersionList {
         if (version == null) {
             throw new IllegalArgumentException("Cannot set latest version to null");
         }
-        this.latestVersions.put((MinecraftReleaseType) version.getType(), version);
+        synchronized (this.writeLock) {
+            final SnapshotBuilder builder = new SnapshotBuilder(this.snapshot);
+            builder.setLatest((MinecraftReleaseType) version.getType(), version);
+            this.snapshot = builder.build();
+        }
     }
 
     public void setLatestVersion(final String name) {
@@ -136,4 +146,74 @@ abstract class VersionList {
     public void uninstallVersion(final Version version) {
         this.removeVersion(version);
     }
+
+    private static class Snapshot {
+        private final List<Version> versions;
+        private final Map<String, Version> versionsByName;
+        private final Map<MinecraftReleaseType, Version> latestVersions;
+
+        Snapshot(final List<Version> versions, final Map<String, Version> versionsByName, final Map<MinecraftReleaseType, Version> latestVersions) {
+            this.versions = Collections.unmodifiableList(versions);
+            this.versionsByName = Collections.unmodifiableMap(versionsByName);
+            this.latestVersions = Collections.unmodifiableMap(latestVersions);
+        }
+    }
+
+    static class SnapshotBuilder {
+        private final List<Version> versions;
+        private final Map<String, Version> versionsByName;
+        private final Map<MinecraftReleaseType, Version> latestVersions;
+
+        SnapshotBuilder() {
+            this.versions = new ArrayList<>();
+            this.versionsByName = new HashMap<>();
+            this.latestVersions = Maps.newEnumMap(MinecraftReleaseType.class);
+        }
+
+        private SnapshotBuilder(final Snapshot snapshot) {
+            this.versions = new ArrayList<>(snapshot.versions);
+            this.versionsByName = new HashMap<>(snapshot.versionsByName);
+            this.latestVersions = Maps.newEnumMap(MinecraftReleaseType.class);
+            this.latestVersions.putAll(snapshot.latestVersions);
+        }
+
+        void add(final Version version) {
+            this.versions.add(version);
+            this.versionsByName.put(version.getId(), version);
+        }
+
+        Version get(final String name) {
+            return this.versionsByName.get(name);
+        }
+
+        List<Version> getVersions() {
+            return this.versions;
+        }
+
+        Version getLatest(final MinecraftReleaseType type) {
+            return this.latestVersions.get(type);
+        }
+
+        void setLatest(final MinecraftReleaseType type, final Version version) {
+            this.latestVersions.put(type, version);
+        }
+
+        void remove(final Version version) {
+            this.versions.remove(version);
+            this.versionsByName.remove(version.getId());
+            this.latestVersions.values().removeIf(latest -> latest == version);
+        }
+
+        void replace(final PartialVersion version, final CompleteVersion complete) {
+            Collections.replaceAll(this.versions, version, complete);
+            this.versionsByName.put(version.getId(), complete);
+            if (this.latestVersions.get(version.getType()) == version) {
+                this.latestVersions.put(version.getType(), complete);
+            }
+        }
+
+        Snapshot build() {
+            return new Snapshot(this.versions, this.versionsByName, this.latestVersions);
+        }
+    }
 }